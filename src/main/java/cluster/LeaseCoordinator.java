@@ -0,0 +1,308 @@
+package cluster;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Owns the ticket numbers of an event and leases blocks of them to worker processes over loopback sockets.
+ * Every ticket number from 1 to maxTicketCapacity is leased to at most one worker at a time.
+ * Sold tickets are reported as ranges and taken out of the worker's leases, and only ranges a worker still
+ * holds can be reported as sold or returned, so a sold ticket is never leased again and the event can never
+ * be oversold.
+ *
+ * <p>The protocol is line based. Workers send {@code CAPACITY}, {@code LEASE <count>}, {@code RETURN <start> <end>}
+ * and {@code SOLD <start> <end>}; ranges are half-open, so {@code RANGE 1 11} covers tickets 1 to 10.
+ * A lease that cannot be granted is answered with {@code NONE <outstanding>}, the tickets other workers
+ * still hold unsold or unreported, so a worker knows whether returned ranges may still turn up.
+ */
+public class LeaseCoordinator {
+    private static final Logger logger = LogManager.getLogger(LeaseCoordinator.class);
+    private final int maxTicketCapacity;
+    private final ArrayDeque<int[]> returnedRanges = new ArrayDeque<>(); // Ranges given back by workers
+    private int nextTicketNumber = 1;  // First ticket number never leased
+    private int ticketsLeased;         // Leased tickets workers have neither sold nor returned
+    private int ticketsSold;           // Tickets workers reported as sold
+    private int ticketsAbandoned;      // Tickets held by workers that disconnected, never leased again
+    private ServerSocket serverSocket;
+
+    /**
+     * Creates a coordinator for an event.
+     *
+     * @param maxTicketCapacity the total number of tickets for the event
+     */
+    public LeaseCoordinator(int maxTicketCapacity) {
+        this.maxTicketCapacity = maxTicketCapacity;
+    }
+
+    /**
+     * Starts accepting worker connections on the loopback interface.
+     *
+     * @param port the port to listen on, or 0 to pick a free port
+     * @return the port the coordinator is listening on
+     * @throws IOException if the server socket cannot be opened
+     */
+    public synchronized int start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptWorkers, "Lease Coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Lease coordinator listening on port " + serverSocket.getLocalPort() +
+                " with " + maxTicketCapacity + " tickets");
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting worker connections.
+     */
+    public synchronized void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            logger.error("Error Occurred while closing coordinator: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Leases a block of ticket numbers, preferring ranges returned by other workers.
+     *
+     * @param count the number of tickets requested
+     * @return a half-open range {start, end}, or null if every ticket has been leased
+     */
+    synchronized int[] lease(int count) {
+        if (count <= 0) {
+            return null;
+        }
+        int[] returned = returnedRanges.poll();
+        if (returned != null) {
+            int end = (int) Math.min((long) returned[1], (long) returned[0] + count);
+            if (end < returned[1]) {
+                returnedRanges.addFirst(new int[]{end, returned[1]});
+            }
+            ticketsLeased += end - returned[0];
+            return new int[]{returned[0], end};
+        }
+        if (nextTicketNumber > maxTicketCapacity) {
+            return null;
+        }
+        int start = nextTicketNumber;
+        int end = (int) Math.min((long) maxTicketCapacity + 1, (long) start + count);
+        nextTicketNumber = end;
+        ticketsLeased += end - start;
+        return new int[]{start, end};
+    }
+
+    /**
+     * Takes back an unused range so it can be leased to another worker.
+     *
+     * @param start the first ticket number of the range
+     * @param end   one past the last ticket number of the range
+     */
+    synchronized void giveBack(int start, int end) {
+        returnedRanges.add(new int[]{start, end});
+        ticketsLeased -= end - start;
+    }
+
+    /**
+     * Records tickets a worker reported as sold from its leases.
+     * The caller has already taken them out of the worker's held ranges.
+     *
+     * @param count the number of tickets sold
+     */
+    synchronized void recordSold(int count) {
+        ticketsSold += count;
+        ticketsLeased -= count;
+    }
+
+    /**
+     * Writes off the tickets a disconnected worker still held. They may have been sold, so they are never
+     * leased again, and they no longer count as tickets that could be returned.
+     *
+     * @param count the number of tickets the worker held
+     */
+    synchronized void abandon(int count) {
+        ticketsLeased -= count;
+        ticketsAbandoned += count;
+    }
+
+    /**
+     * Gets the number of tickets workers reported as sold.
+     *
+     * @return the sold ticket count
+     */
+    public synchronized int getTicketsSold() {
+        return ticketsSold;
+    }
+
+    /**
+     * Gets the number of leased tickets workers have neither sold nor returned.
+     *
+     * @return the leased ticket count
+     */
+    public synchronized int getTicketsLeased() {
+        return ticketsLeased;
+    }
+
+    /**
+     * Gets the number of tickets written off because the worker holding them disconnected.
+     *
+     * @return the abandoned ticket count
+     */
+    public synchronized int getTicketsAbandoned() {
+        return ticketsAbandoned;
+    }
+
+    /**
+     * Accepts worker connections and serves each one on its own thread.
+     */
+    private void acceptWorkers() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread session = new Thread(() -> serve(socket), "Lease Session " + socket.getPort());
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.error("Error Occurred while accepting worker: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves the requests of a single worker. Ranges leased to the worker are tracked
+     * so it can only return tickets it actually holds.
+     *
+     * @param socket the worker connection
+     */
+    private void serve(Socket socket) {
+        TreeMap<Integer, Integer> held = new TreeMap<>(); // start -> end of unsold ranges held by this worker
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                try {
+                    switch (parts[0]) {
+                        case "CAPACITY":
+                            out.println("CAPACITY " + maxTicketCapacity);
+                            break;
+                        case "LEASE":
+                            int[] range = lease(Integer.parseInt(parts[1]));
+                            if (range == null) {
+                                out.println("NONE " + (getTicketsLeased() - count(held)));
+                            } else {
+                                held.put(range[0], range[1]);
+                                out.println("RANGE " + range[0] + " " + range[1]);
+                            }
+                            break;
+                        case "RETURN":
+                            int start = Integer.parseInt(parts[1]);
+                            int end = Integer.parseInt(parts[2]);
+                            if (release(held, start, end)) {
+                                giveBack(start, end);
+                                out.println("OK");
+                            } else {
+                                out.println("ERROR range not held");
+                            }
+                            break;
+                        case "SOLD":
+                            int soldStart = Integer.parseInt(parts[1]);
+                            int soldEnd = Integer.parseInt(parts[2]);
+                            // Sold tickets leave the worker's leases, so they can never be returned and leased again
+                            if (release(held, soldStart, soldEnd)) {
+                                recordSold(soldEnd - soldStart);
+                                out.println("OK");
+                            } else {
+                                out.println("ERROR range not held");
+                            }
+                            break;
+                        default:
+                            out.println("ERROR unknown command");
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    out.println("ERROR malformed request");
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error Occurred while serving worker: " + e.getMessage());
+        }
+        // Tickets still held by a worker that disconnected may have been sold, so they are never re-leased
+        int abandoned = count(held);
+        if (abandoned > 0) {
+            abandon(abandoned);
+            logger.info("Worker disconnected holding " + abandoned + " tickets; they will not be leased again");
+        }
+    }
+
+    /**
+     * Counts the tickets in the ranges held by a worker.
+     *
+     * @param held the ranges held by the worker
+     * @return the number of tickets
+     */
+    private static int count(TreeMap<Integer, Integer> held) {
+        int tickets = 0;
+        for (Map.Entry<Integer, Integer> entry : held.entrySet()) {
+            tickets += entry.getValue() - entry.getKey();
+        }
+        return tickets;
+    }
+
+    /**
+     * Removes a range from the ranges held by a worker, splitting the enclosing lease if needed.
+     *
+     * @param held  the ranges held by the worker
+     * @param start the first ticket number of the range
+     * @param end   one past the last ticket number of the range
+     * @return true if the worker held the whole range
+     */
+    private static boolean release(TreeMap<Integer, Integer> held, int start, int end) {
+        Map.Entry<Integer, Integer> lease = held.floorEntry(start);
+        if (start >= end || lease == null || lease.getValue() < end) {
+            return false;
+        }
+        held.remove(lease.getKey());
+        if (lease.getKey() < start) {
+            held.put(lease.getKey(), start);
+        }
+        if (end < lease.getValue()) {
+            held.put(end, lease.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Runs a coordinator process until Enter is pressed.
+     *
+     * @param args the port and the maximum ticket capacity
+     * @throws IOException if the server socket cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5050;
+        int maxTicketCapacity = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        LeaseCoordinator coordinator = new LeaseCoordinator(maxTicketCapacity);
+        coordinator.start(port);
+        System.out.println("Press Enter to stop the coordinator...");
+        new BufferedReader(new InputStreamReader(System.in)).readLine();
+        coordinator.stop();
+        System.out.println("Tickets sold: " + coordinator.getTicketsSold() + " of " + maxTicketCapacity +
+                ". Tickets still leased: " + coordinator.getTicketsLeased() +
+                ". Tickets abandoned: " + coordinator.getTicketsAbandoned());
+    }
+}
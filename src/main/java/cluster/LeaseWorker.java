@@ -0,0 +1,259 @@
+package cluster;
+
+import core.TicketPool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sells tickets from blocks of ticket numbers leased from a {@link LeaseCoordinator}.
+ * Leased blocks are imported into a local {@link TicketPool} and every sale goes through that pool, so its
+ * guards, listeners, flight recorder events and record store apply to cluster sales as they do to local ones.
+ * Sales are served without talking to the coordinator; a new block is only leased once the pool runs short.
+ *
+ * <p>Each lease is reported as sold as soon as all of its tickets have been sold, so the coordinator's counts
+ * stay current and a worker that dies loses at most the leases it has not finished. On close the sold parts of
+ * unfinished leases are reported and the rest returned. Tickets refunded to the local pool after their lease
+ * was reported are resold locally without being reported again.
+ */
+public class LeaseWorker implements Closeable {
+    private static final Logger logger = LogManager.getLogger(LeaseWorker.class);
+    private final Socket socket;
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final int leaseSize;
+    private final TicketPool ticketPool;
+    private final TreeMap<Integer, Lease> leases = new TreeMap<>(); // Unfinished leases by first ticket number
+    private int ticketsSold;
+    private boolean exhausted;   // The coordinator has no tickets left and none can be returned to it
+
+    /**
+     * A leased block of ticket numbers and which of them have been sold.
+     */
+    private static final class Lease {
+        private final int start;
+        private final int end;
+        private final BitSet sold;
+
+        /**
+         * Creates a lease.
+         *
+         * @param start the first ticket number
+         * @param end   one past the last ticket number
+         */
+        private Lease(int start, int end) {
+            this.start = start;
+            this.end = end;
+            this.sold = new BitSet(end - start);
+        }
+    }
+
+    /**
+     * Connects a worker to a coordinator on the loopback interface.
+     *
+     * @param port      the coordinator port
+     * @param leaseSize the number of tickets to lease at a time
+     * @throws IOException if the connection cannot be opened
+     */
+    public LeaseWorker(int port, int leaseSize) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        this.out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+        this.leaseSize = leaseSize;
+        // The pool spans every ticket number of the event, but only ever holds the leased ones
+        String[] capacity = request("CAPACITY").split(" ");
+        this.ticketPool = new TicketPool(0, Integer.parseInt(capacity[1]));
+    }
+
+    /**
+     * Gets the local pool that leased tickets are sold from, for setting listeners, a record store
+     * or a gate validator.
+     *
+     * @return the worker's ticket pool
+     */
+    public TicketPool getTicketPool() {
+        return ticketPool;
+    }
+
+    /**
+     * Sells up to the requested number of tickets from the local pool, leasing new blocks when it runs short.
+     *
+     * @param count the number of tickets to sell
+     * @return the ticket numbers sold, fewer than requested if the coordinator has no tickets free right now
+     * @throws IOException if the coordinator cannot be reached
+     */
+    public synchronized int[] sell(int count) throws IOException {
+        int available = ticketPool.getAvailableTickets();
+        while (available < count && !exhausted && leaseBlock(Math.max(leaseSize, count - available))) {
+            available = ticketPool.getAvailableTickets();
+        }
+        int[] sold = ticketPool.tryRemoveTickets(count);
+        for (int ticketNumber : sold) {
+            recordSold(ticketNumber);
+        }
+        ticketsSold += sold.length;
+        return sold;
+    }
+
+    /**
+     * Checks whether the event is sold out for this worker: the local pool is empty, the coordinator has
+     * nothing left to lease and no other worker holds tickets that could still be returned.
+     *
+     * @return true once no more tickets can be sold
+     */
+    public synchronized boolean isSoldOut() {
+        return exhausted && ticketPool.getAvailableTickets() == 0;
+    }
+
+    /**
+     * Gets the number of tickets sold by this worker.
+     *
+     * @return the sold ticket count
+     */
+    public synchronized int getTicketsSold() {
+        return ticketsSold;
+    }
+
+    /**
+     * Closes the local pool, reports the sold parts of unfinished leases, returns the rest and closes the connection.
+     *
+     * @throws IOException if the coordinator cannot be reached
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        ticketPool.close();
+        try {
+            for (Lease lease : leases.values()) {
+                int size = lease.end - lease.start;
+                int offset = 0;
+                // Split the lease into runs of sold and unsold tickets
+                while (offset < size) {
+                    boolean sold = lease.sold.get(offset);
+                    int next = sold ? lease.sold.nextClearBit(offset) : lease.sold.nextSetBit(offset);
+                    if (next < 0 || next > size) {
+                        next = size;
+                    }
+                    request((sold ? "SOLD " : "RETURN ") + (lease.start + offset) + " " + (lease.start + next));
+                    offset = next;
+                }
+            }
+            leases.clear();
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Marks a ticket of a lease as sold, reporting the lease to the coordinator once all of it is sold.
+     *
+     * @param ticketNumber the ticket number sold
+     * @throws IOException if the coordinator cannot be reached
+     */
+    private void recordSold(int ticketNumber) throws IOException {
+        Map.Entry<Integer, Lease> entry = leases.floorEntry(ticketNumber);
+        if (entry == null || ticketNumber >= entry.getValue().end) {
+            return; // A refunded ticket from a lease that has already been reported
+        }
+        Lease lease = entry.getValue();
+        lease.sold.set(ticketNumber - lease.start);
+        if (lease.sold.cardinality() == lease.end - lease.start) {
+            request("SOLD " + lease.start + " " + lease.end);
+            leases.remove(lease.start);
+        }
+    }
+
+    /**
+     * Leases a new block of tickets from the coordinator and imports it into the local pool.
+     * A refusal marks the worker exhausted only when no other worker holds tickets that could be returned;
+     * otherwise the next sale asks again, so ranges returned later are leased.
+     *
+     * @param count the number of tickets to lease
+     * @return true if a block was leased, false if the coordinator has none free
+     * @throws IOException if the coordinator cannot be reached
+     */
+    private boolean leaseBlock(int count) throws IOException {
+        String[] reply = request("LEASE " + count).split(" ");
+        if (reply[0].equals("RANGE")) {
+            int start = Integer.parseInt(reply[1]);
+            int end = Integer.parseInt(reply[2]);
+            int[] ticketNumbers = new int[end - start];
+            for (int i = 0; i < ticketNumbers.length; i++) {
+                ticketNumbers[i] = start + i;
+            }
+            leases.put(start, new Lease(start, end));
+            ticketPool.addTicketBatch(ticketNumbers, ticketNumbers.length);
+            exhausted = false;
+            return true;
+        }
+        // NONE <outstanding>: tickets held by other workers may yet be returned
+        exhausted = reply.length < 2 || Integer.parseInt(reply[1]) == 0;
+        return false;
+    }
+
+    /**
+     * Sends a request to the coordinator and waits for the reply.
+     *
+     * @param request the request line
+     * @return the reply line
+     * @throws IOException if the coordinator cannot be reached or rejects the request
+     */
+    private String request(String request) throws IOException {
+        out.println(request);
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new IOException("Coordinator closed the connection");
+        }
+        if (reply.startsWith("ERROR")) {
+            throw new IOException("Coordinator rejected '" + request + "': " + reply);
+        }
+        return reply;
+    }
+
+    /**
+     * Runs a worker process that sells tickets on several customer threads until the event is sold out.
+     *
+     * @param args the coordinator port, the lease size, the customer thread count and the tickets bought per purchase
+     * @throws Exception if the coordinator cannot be reached or a thread is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5050;
+        int leaseSize = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int customerCount = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int retrievalRate = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        try (LeaseWorker worker = new LeaseWorker(port, leaseSize)) {
+            Thread[] customers = new Thread[customerCount];
+            for (int i = 0; i < customerCount; i++) {
+                customers[i] = new Thread(() -> {
+                    try {
+                        while (!worker.isSoldOut()) {
+                            if (worker.sell(retrievalRate).length < retrievalRate) {
+                                Thread.sleep(100); // Other workers may still return tickets
+                            }
+                        }
+                    } catch (IOException e) {
+                        logger.error("Error Occurred while selling: " + e.getMessage());
+                    } catch (InterruptedException e) {
+                        System.out.println("Customer Thread interrupted");
+                    }
+                }, "Customer " + (i + 1));
+                customers[i].start();
+            }
+            for (Thread customer : customers) {
+                customer.join();
+            }
+            logger.info("Worker sold " + worker.getTicketsSold() + " tickets");
+        }
+    }
+}
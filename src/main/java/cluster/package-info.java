@@ -0,0 +1,14 @@
+/**
+ * This package contains the multi-process mode of the Real-Time Event Ticketing System.
+ * A coordinator process owns the ticket numbers of an event and leases blocks of them to worker processes over loopback sockets.
+ *
+ * <p>Classes in this package:
+ * <ul>
+ *   <li>{@link cluster.LeaseCoordinator} - Owns the maximum ticket capacity and leases ranges of ticket numbers to workers. It only accepts back ranges a worker actually holds, so tickets can never be oversold.</li>
+ *   <li>{@link cluster.LeaseWorker} - Sells its leased ranges through a local ticket pool, reports each range once it is sold out, leases new blocks when the pool runs short and returns unused ranges when it closes.</li>
+ * </ul>
+ *
+ * @author Raveen Gamachchige
+ * @version 1.0
+ */
+package cluster;
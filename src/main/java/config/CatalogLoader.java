@@ -0,0 +1,181 @@
+package config;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams an event catalog file with Gson's {@link JsonReader}, handing each event to a consumer as soon as it is read.
+ * Only one event is held in memory at a time, so catalogs of tens of thousands of events load without building a JSON tree.
+ *
+ * <p>The catalog format is:
+ * <pre>
+ * {"events": [
+ *   {"id": "fest-2025", "name": "Summer Fest", "maxTicketCapacity": 50000, "totalTickets": 1000,
+ *    "ticketReleaseRate": 5, "customerRetrievalRate": 2, "basePrice": 75.0,
+ *    "sections": [{"name": "VIP", "capacity": 500, "price": 250.0}]}
+ * ]}
+ * </pre>
+ * Unknown fields are skipped, and {@code sections} and {@code basePrice} are optional. Section capacities may not
+ * add up to more than {@code maxTicketCapacity}.
+ */
+public class CatalogLoader {
+    /**
+     * Default constructor for CatalogLoader.
+     */
+    public CatalogLoader() {}
+
+    /**
+     * Streams the events of a catalog file.
+     *
+     * @param filename the catalog file
+     * @param consumer receives each event in file order
+     * @return the number of events read
+     * @throws IOException if the file cannot be read or an event is malformed or invalid
+     */
+    public int stream(String filename, Consumer<EventSpec> consumer) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            return stream(reader, consumer);
+        }
+    }
+
+    /**
+     * Streams the events of a catalog from a reader.
+     *
+     * @param reader   the catalog source
+     * @param consumer receives each event in order
+     * @return the number of events read
+     * @throws IOException if the catalog cannot be read or an event is malformed or invalid
+     */
+    public int stream(Reader reader, Consumer<EventSpec> consumer) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        int count = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals("events")) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    consumer.accept(readEvent(json));
+                    count++;
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return count;
+    }
+
+    /**
+     * Reads and validates a single event object.
+     *
+     * @param json the reader positioned at the event
+     * @return the event
+     * @throws IOException if the event is malformed or invalid
+     */
+    private EventSpec readEvent(JsonReader json) throws IOException {
+        String id = null;
+        String name = null;
+        int maxTicketCapacity = 0;
+        int totalTickets = 0;
+        int ticketReleaseRate = 0;
+        int customerRetrievalRate = 0;
+        double basePrice = 0;
+        List<EventSpec.Section> sections = new ArrayList<>();
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "id":
+                    id = json.nextString();
+                    break;
+                case "name":
+                    name = json.nextString();
+                    break;
+                case "maxTicketCapacity":
+                    maxTicketCapacity = json.nextInt();
+                    break;
+                case "totalTickets":
+                    totalTickets = json.nextInt();
+                    break;
+                case "ticketReleaseRate":
+                    ticketReleaseRate = json.nextInt();
+                    break;
+                case "customerRetrievalRate":
+                    customerRetrievalRate = json.nextInt();
+                    break;
+                case "basePrice":
+                    basePrice = json.nextDouble();
+                    break;
+                case "sections":
+                    readSections(json, sections);
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+
+        long sectionCapacity = 0;
+        for (EventSpec.Section section : sections) {
+            sectionCapacity += section.getCapacity();
+        }
+        if (id == null || maxTicketCapacity <= 0 || totalTickets < 0 || totalTickets > maxTicketCapacity ||
+                ticketReleaseRate <= 0 || customerRetrievalRate <= 0 || basePrice < 0 || sectionCapacity > maxTicketCapacity) {
+            throw new IOException("Invalid event '" + id + "' at " + json.getPath());
+        }
+        return new EventSpec(id, name != null ? name : id, maxTicketCapacity, totalTickets, ticketReleaseRate,
+                customerRetrievalRate, basePrice, sections);
+    }
+
+    /**
+     * Reads the sections array of an event.
+     *
+     * @param json     the reader positioned at the array
+     * @param sections receives the sections read
+     * @throws IOException if a section is malformed
+     */
+    private void readSections(JsonReader json, List<EventSpec.Section> sections) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return;
+        }
+        json.beginArray();
+        while (json.hasNext()) {
+            String name = null;
+            int capacity = 0;
+            double price = 0;
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "name":
+                        name = json.nextString();
+                        break;
+                    case "capacity":
+                        capacity = json.nextInt();
+                        break;
+                    case "price":
+                        price = json.nextDouble();
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            json.endObject();
+            if (name == null || capacity <= 0) {
+                throw new IOException("Invalid section at " + json.getPath());
+            }
+            sections.add(new EventSpec.Section(name, capacity, price));
+        }
+        json.endArray();
+    }
+}
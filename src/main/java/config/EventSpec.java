@@ -0,0 +1,165 @@
+package config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The description of a single event in an event catalog.
+ * Instances are built by {@link CatalogLoader} as the catalog is streamed.
+ */
+public final class EventSpec {
+    private final String id;
+    private final String name;
+    private final int maxTicketCapacity;
+    private final int totalTickets;
+    private final int ticketReleaseRate;
+    private final int customerRetrievalRate;
+    private final double basePrice;
+    private final List<Section> sections;
+
+    /**
+     * A named section of a venue with its own capacity and price.
+     */
+    public static final class Section {
+        private final String name;
+        private final int capacity;
+        private final double price;
+
+        /**
+         * Creates a section.
+         *
+         * @param name     the section name, for example "VIP"
+         * @param capacity the number of tickets in the section
+         * @param price    the ticket price in the section
+         */
+        public Section(String name, int capacity, double price) {
+            this.name = name;
+            this.capacity = capacity;
+            this.price = price;
+        }
+
+        /**
+         * Gets the section name.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of tickets in the section.
+         *
+         * @return the capacity
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Gets the ticket price in the section.
+         *
+         * @return the price
+         */
+        public double getPrice() {
+            return price;
+        }
+    }
+
+    /**
+     * Creates an event description.
+     *
+     * @param id                    the unique event ID
+     * @param name                  the display name
+     * @param maxTicketCapacity     the maximum number of tickets for the event
+     * @param totalTickets          the tickets in the pool when sales open
+     * @param ticketReleaseRate     the tickets each vendor releases per second
+     * @param customerRetrievalRate the tickets each customer buys per second
+     * @param basePrice             the base ticket price
+     * @param sections              the venue sections, possibly empty
+     */
+    public EventSpec(String id, String name, int maxTicketCapacity, int totalTickets, int ticketReleaseRate,
+                     int customerRetrievalRate, double basePrice, List<Section> sections) {
+        this.id = id;
+        this.name = name;
+        this.maxTicketCapacity = maxTicketCapacity;
+        this.totalTickets = totalTickets;
+        this.ticketReleaseRate = ticketReleaseRate;
+        this.customerRetrievalRate = customerRetrievalRate;
+        this.basePrice = basePrice;
+        this.sections = Collections.unmodifiableList(new ArrayList<>(sections));
+    }
+
+    /**
+     * Gets the unique event ID.
+     *
+     * @return the ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the display name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the maximum number of tickets for the event.
+     *
+     * @return the maximum ticket capacity
+     */
+    public int getMaxTicketCapacity() {
+        return maxTicketCapacity;
+    }
+
+    /**
+     * Gets the number of tickets in the pool when sales open.
+     *
+     * @return the initial ticket count
+     */
+    public int getTotalTickets() {
+        return totalTickets;
+    }
+
+    /**
+     * Gets the number of tickets each vendor releases per second.
+     *
+     * @return the ticket release rate
+     */
+    public int getTicketReleaseRate() {
+        return ticketReleaseRate;
+    }
+
+    /**
+     * Gets the number of tickets each customer buys per second.
+     *
+     * @return the customer retrieval rate
+     */
+    public int getCustomerRetrievalRate() {
+        return customerRetrievalRate;
+    }
+
+    /**
+     * Gets the base ticket price.
+     *
+     * @return the base price
+     */
+    public double getBasePrice() {
+        return basePrice;
+    }
+
+    /**
+     * Gets the venue sections.
+     *
+     * @return an unmodifiable list of sections
+     */
+    public List<Section> getSections() {
+        return sections;
+    }
+}
@@ -5,6 +5,8 @@
  * <p>Classes in this package:
  * <ul>
  *   <li>{@link config.Configuration} - Manages configuration settings for the system. It handles validation and saving/loading of configuration data.</li>
+ *   <li>{@link config.EventSpec} - The description of a single event in an event catalog, with its capacity, rates, base price and venue sections.</li>
+ *   <li>{@link config.CatalogLoader} - Streams large event catalog files one event at a time without building a JSON tree.</li>
  * </ul>
  *
  * @author Raveen Gamachchige
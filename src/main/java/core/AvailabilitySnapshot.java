@@ -0,0 +1,106 @@
+package core;
+
+/**
+ * An immutable snapshot of a {@link TicketPool}'s availability.
+ * The pool publishes a new snapshot after every change it makes under its monitor, so readers get
+ * the available, sold and issued counts from the same instant with a single volatile read and never
+ * contend with vendors and customers.
+ */
+public final class AvailabilitySnapshot {
+    private final int availableTickets;
+    private final int totalTicketsSold;
+    private final int ticketsIssued;
+    private final int maxTicketCapacity;
+    private final boolean closed;
+    private final long version;
+
+    /**
+     * Creates a new availability snapshot.
+     *
+     * @param availableTickets  the number of tickets waiting to be bought
+     * @param totalTicketsSold  the total number of tickets sold
+     * @param ticketsIssued     the number of ticket numbers issued so far
+     * @param maxTicketCapacity the maximum number of tickets for the event
+     * @param closed            whether the pool has been closed
+     * @param version           the number of snapshots the pool published before this one
+     */
+    public AvailabilitySnapshot(int availableTickets, int totalTicketsSold, int ticketsIssued,
+                                int maxTicketCapacity, boolean closed, long version) {
+        this.availableTickets = availableTickets;
+        this.totalTicketsSold = totalTicketsSold;
+        this.ticketsIssued = ticketsIssued;
+        this.maxTicketCapacity = maxTicketCapacity;
+        this.closed = closed;
+        this.version = version;
+    }
+
+    /**
+     * Gets the number of tickets waiting to be bought.
+     *
+     * @return the available ticket count
+     */
+    public int getAvailableTickets() {
+        return availableTickets;
+    }
+
+    /**
+     * Gets the total number of tickets sold.
+     *
+     * @return the sold ticket count
+     */
+    public int getTotalTicketsSold() {
+        return totalTicketsSold;
+    }
+
+    /**
+     * Gets the number of ticket numbers issued so far, sold or not.
+     *
+     * @return the issued ticket count
+     */
+    public int getTicketsIssued() {
+        return ticketsIssued;
+    }
+
+    /**
+     * Gets the maximum number of tickets for the event.
+     *
+     * @return the maximum ticket capacity
+     */
+    public int getMaxTicketCapacity() {
+        return maxTicketCapacity;
+    }
+
+    /**
+     * Checks whether the pool had been closed.
+     *
+     * @return true if the pool was closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Checks whether the event is sold out, meaning every ticket has been issued and none are left to buy.
+     *
+     * @return true if the event is sold out
+     */
+    public boolean isSoldOut() {
+        return ticketsIssued >= maxTicketCapacity && availableTickets == 0;
+    }
+
+    /**
+     * Gets the version of this snapshot. Versions increase with every change, so a reader can tell
+     * whether anything changed since its last poll.
+     *
+     * @return the snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "Available: " + availableTickets + ", Total Tickets Sold: " + totalTicketsSold +
+                (isSoldOut() ? " (sold out)" : "");
+    }
+}
@@ -0,0 +1,128 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An all-or-nothing purchase of tickets from several pools, such as a festival bundle.
+ * The monitors of all pools in the bundle are taken in ascending {@link TicketPool#getPoolId()} order,
+ * so overlapping bundles can never deadlock. Each pool is first checked on its own, so a bundle that
+ * cannot be filled never holds a hot pool's monitor while waiting for another.
+ */
+public class BundlePurchase {
+    private final Map<TicketPool, Integer> quantities = new LinkedHashMap<>();
+
+    /**
+     * Creates an empty bundle.
+     */
+    public BundlePurchase() {}
+
+    /**
+     * Adds tickets from a pool to the bundle. Adding the same pool twice adds to its quantity.
+     *
+     * @param ticketPool the pool to buy from
+     * @param quantity   the number of tickets to buy from the pool
+     * @return this bundle, for chaining
+     */
+    public BundlePurchase add(TicketPool ticketPool, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        quantities.merge(ticketPool, quantity, Integer::sum);
+        return this;
+    }
+
+    /**
+     * Tries to buy the whole bundle once without waiting.
+     *
+     * @return the ticket numbers bought from each pool, in the order the pools were added,
+     *         or null if any pool could not supply its tickets, in which case nothing is bought
+     */
+    public Map<TicketPool, int[]> tryPurchase() {
+        // Cheap check of each pool on its own before locking them all
+        for (Map.Entry<TicketPool, Integer> entry : quantities.entrySet()) {
+            TicketPool pool = entry.getKey();
+            synchronized (pool) {
+                if (!pool.canSell(entry.getValue())) {
+                    return null;
+                }
+            }
+        }
+        List<TicketPool> lockOrder = new ArrayList<>(quantities.keySet());
+        lockOrder.sort(Comparator.comparingLong(TicketPool::getPoolId));
+        Map<TicketPool, int[]> bought = new LinkedHashMap<>();
+        return purchaseLocked(lockOrder, 0, bought) ? orderAsAdded(bought) : null;
+    }
+
+    /**
+     * Buys the whole bundle, retrying with a short back-off until it succeeds or the timeout expires.
+     *
+     * @param timeoutMillis the maximum time to keep trying
+     * @return the ticket numbers bought from each pool, or null if the bundle could not be filled in time
+     * @throws InterruptedException if the thread is interrupted while backing off
+     */
+    public Map<TicketPool, int[]> purchase(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long backoffNanos = TimeUnit.MICROSECONDS.toNanos(50);
+        while (true) {
+            Map<TicketPool, int[]> bought = tryPurchase();
+            if (bought != null) {
+                return bought;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            LockSupport.parkNanos(Math.min(backoffNanos, remaining));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            backoffNanos = Math.min(backoffNanos * 2, TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    /**
+     * Takes the monitors of the pools from the given index onwards in order, then sells from all of them
+     * if every pool can still supply its tickets.
+     *
+     * @param lockOrder the pools sorted by ID
+     * @param index     the next pool to lock
+     * @param bought    collects the ticket numbers sold from each pool
+     * @return true if the whole bundle was sold
+     */
+    private boolean purchaseLocked(List<TicketPool> lockOrder, int index, Map<TicketPool, int[]> bought) {
+        if (index == lockOrder.size()) {
+            for (TicketPool pool : lockOrder) {
+                if (!pool.canSell(quantities.get(pool))) {
+                    return false;
+                }
+            }
+            for (TicketPool pool : lockOrder) {
+                bought.put(pool, pool.sellReserved(quantities.get(pool)));
+            }
+            return true;
+        }
+        synchronized (lockOrder.get(index)) {
+            return purchaseLocked(lockOrder, index + 1, bought);
+        }
+    }
+
+    /**
+     * Reorders the purchased tickets to match the order the pools were added to the bundle.
+     *
+     * @param bought the ticket numbers sold, keyed in lock order
+     * @return the ticket numbers sold, keyed in the order the pools were added
+     */
+    private Map<TicketPool, int[]> orderAsAdded(Map<TicketPool, int[]> bought) {
+        Map<TicketPool, int[]> ordered = new LinkedHashMap<>();
+        for (TicketPool pool : quantities.keySet()) {
+            ordered.put(pool, bought.get(pool));
+        }
+        return ordered;
+    }
+}
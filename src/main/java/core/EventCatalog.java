@@ -0,0 +1,258 @@
+package core;
+
+import config.CatalogLoader;
+import config.EventSpec;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The ticket pools of every event in a catalog, keyed by event ID.
+ * The catalog file is streamed by a {@link CatalogLoader} while a pool of worker threads builds the
+ * ticket pools in parallel. The number of events waiting to be built is bounded, so memory stays flat
+ * however large the catalog is.
+ *
+ * <p>An event without sections gets a single {@link TicketPool}. An event with sections gets a
+ * {@link TieredTicketPool} with a tier for each section, plus a "General" tier for any capacity the sections
+ * leave over. The tiers' ticket numbers together run from 1 to the event's max ticket capacity without
+ * overlapping. Each pool or tier gets a {@link PricingEngine} at its base or section price, which is started
+ * when the event goes on sale.
+ */
+public class EventCatalog {
+    private static final Logger logger = LogManager.getLogger(EventCatalog.class);
+    private final Map<String, EventSpec> specs = new ConcurrentHashMap<>();
+    private final Map<String, TicketPool> pools = new ConcurrentHashMap<>();
+    private final Map<String, TieredTicketPool> tieredPools = new ConcurrentHashMap<>();
+    private final Map<String, List<PricingEngine>> pricingEngines = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty catalog.
+     */
+    public EventCatalog() {}
+
+    /**
+     * Loads a catalog file, building the ticket pools on all available processors.
+     *
+     * @param filename the catalog file
+     * @return the loaded catalog
+     * @throws IOException if the file cannot be read, an event is invalid or an event ID is repeated
+     */
+    public static EventCatalog load(String filename) throws IOException {
+        return load(filename, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Loads a catalog file, building the ticket pools on the given number of threads.
+     *
+     * @param filename the catalog file
+     * @param threads  the number of threads building pools
+     * @return the loaded catalog
+     * @throws IOException if the file cannot be read, an event is invalid or an event ID is repeated
+     */
+    public static EventCatalog load(String filename, int threads) throws IOException {
+        EventCatalog catalog = new EventCatalog();
+        ExecutorService builders = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Catalog Builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore pending = new Semaphore(threads * 64); // Bounds the events read but not yet built
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        long startTime = System.nanoTime();
+        int count;
+        try {
+            count = new CatalogLoader().stream(filename, spec -> {
+                pending.acquireUninterruptibly();
+                builders.execute(() -> {
+                    try {
+                        catalog.addEvent(spec);
+                    } catch (IOException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        pending.release();
+                    }
+                });
+            });
+        } finally {
+            builders.shutdown();
+        }
+        try {
+            builders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while building ticket pools", e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        logger.info("Loaded " + count + " events from " + filename + " in " +
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms");
+        return catalog;
+    }
+
+    /**
+     * Builds the ticket pools for an event and adds them to the catalog. The tickets in the pool when sales
+     * open and the release rate are split between the tiers in proportion to their capacity.
+     *
+     * @param spec the event description
+     * @throws IOException if the sections hold more tickets than the event, two sections share a name,
+     *                     or an event with the same ID is already in the catalog
+     */
+    public void addEvent(EventSpec spec) throws IOException {
+        int maxTicketCapacity = spec.getMaxTicketCapacity();
+        long sectionCapacity = 0;
+        for (EventSpec.Section section : spec.getSections()) {
+            sectionCapacity += section.getCapacity();
+        }
+        if (sectionCapacity > maxTicketCapacity) {
+            throw new IOException("Sections of event '" + spec.getId() + "' hold " + sectionCapacity +
+                    " tickets, more than its max ticket capacity of " + maxTicketCapacity);
+        }
+
+        List<PricingEngine> engines = new ArrayList<>();
+        TicketPool pool = null;
+        TieredTicketPool tieredPool = null;
+        if (spec.getSections().isEmpty()) {
+            pool = new TicketPool(spec.getTotalTickets(), maxTicketCapacity);
+            addPricingEngine(pool, spec.getBasePrice(), spec.getTicketReleaseRate(), engines);
+        } else {
+            tieredPool = new TieredTicketPool();
+            List<EventSpec.Section> sections = new ArrayList<>(spec.getSections());
+            if (sectionCapacity < maxTicketCapacity) {
+                sections.add(new EventSpec.Section("General", (int) (maxTicketCapacity - sectionCapacity), spec.getBasePrice()));
+            }
+            for (EventSpec.Section section : sections) {
+                int totalTickets = (int) ((long) spec.getTotalTickets() * section.getCapacity() / maxTicketCapacity);
+                int releaseRate = Math.max(1, (int) ((long) spec.getTicketReleaseRate() * section.getCapacity() / maxTicketCapacity));
+                TieredTicketPool.Tier tier;
+                try {
+                    tier = tieredPool.addTier(section.getName(), totalTickets, section.getCapacity(), releaseRate);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid event '" + spec.getId() + "': " + e.getMessage(), e);
+                }
+                addPricingEngine(tier.getTicketPool(), section.getPrice(), releaseRate, engines);
+            }
+        }
+
+        if (specs.putIfAbsent(spec.getId(), spec) != null) {
+            throw new IOException("Duplicate event ID '" + spec.getId() + "'");
+        }
+        if (pool != null) {
+            pools.put(spec.getId(), pool);
+        } else {
+            tieredPools.put(spec.getId(), tieredPool);
+        }
+        pricingEngines.put(spec.getId(), Collections.unmodifiableList(engines));
+    }
+
+    /**
+     * Creates a pricing engine for a pool that targets selling tickets as fast as they are released.
+     * Free tickets are not priced.
+     *
+     * @param pool        the pool to price
+     * @param basePrice   the base price, 0 for free tickets
+     * @param releaseRate the tickets released per second, used as the target sales velocity
+     * @param engines     receives the engine
+     */
+    private static void addPricingEngine(TicketPool pool, double basePrice, int releaseRate, List<PricingEngine> engines) {
+        if (basePrice > 0) {
+            PricingEngine engine = new PricingEngine(basePrice, releaseRate);
+            pool.setPricingEngine(engine);
+            engines.add(engine);
+        }
+    }
+
+    /**
+     * Gets the ticket pool of an event without sections.
+     *
+     * @param eventId the event ID
+     * @return the pool, or null if the event is not in the catalog or has sections
+     */
+    public TicketPool getPool(String eventId) {
+        return pools.get(eventId);
+    }
+
+    /**
+     * Gets the tiered ticket pool of an event with sections.
+     *
+     * @param eventId the event ID
+     * @return the tiered pool, or null if the event is not in the catalog or has no sections
+     */
+    public TieredTicketPool getTieredPool(String eventId) {
+        return tieredPools.get(eventId);
+    }
+
+    /**
+     * Gets the pricing engines of an event, one for its pool or one for each priced tier.
+     * They are not started by the catalog, start them when the event goes on sale.
+     *
+     * @param eventId the event ID
+     * @return the pricing engines, empty if the event is free or not in the catalog
+     */
+    public List<PricingEngine> getPricingEngines(String eventId) {
+        return pricingEngines.getOrDefault(eventId, Collections.emptyList());
+    }
+
+    /**
+     * Gets the description of an event.
+     *
+     * @param eventId the event ID
+     * @return the event description, or null if the event is not in the catalog
+     */
+    public EventSpec getSpec(String eventId) {
+        return specs.get(eventId);
+    }
+
+    /**
+     * Gets the descriptions of all events in the catalog.
+     *
+     * @return an unmodifiable view of the event descriptions
+     */
+    public Collection<EventSpec> getSpecs() {
+        return Collections.unmodifiableCollection(specs.values());
+    }
+
+    /**
+     * Gets the number of events in the catalog.
+     *
+     * @return the event count
+     */
+    public int size() {
+        return specs.size();
+    }
+
+    /**
+     * Loads a catalog file from the command line and prints a summary of the events built.
+     *
+     * @param args the catalog file, optionally followed by the number of builder threads
+     * @throws IOException if the catalog cannot be loaded
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: EventCatalog <catalog.json> [threads]");
+            return;
+        }
+        Configurator.setLevel(EventCatalog.class.getName(), Level.INFO);
+        EventCatalog catalog = args.length > 1 ? load(args[0], Integer.parseInt(args[1])) : load(args[0]);
+        long tickets = 0;
+        for (EventSpec spec : catalog.getSpecs()) {
+            tickets += spec.getMaxTicketCapacity();
+        }
+        System.out.println("Events: " + catalog.size() + " (" + catalog.tieredPools.size() + " with sections), " +
+                "total capacity: " + tickets + " tickets");
+    }
+}
@@ -0,0 +1,60 @@
+package core;
+
+import logger.FileHandler;
+import threads.ReleaseRateController;
+
+import java.io.File;
+import java.util.Scanner;
+
+/**
+ * A non-interactive entry point that runs the ticketing engine without any user interface.
+ * It loads the saved configuration from config.json and never touches JavaFX classes, so it starts
+ * quickly and can be launched with an AppCDS archive built by the {@code headless-cds} Maven profile.
+ */
+public class HeadlessServer {
+    /**
+     * Default constructor for HeadlessServer.
+     */
+    public HeadlessServer() {}
+
+    /**
+     * Runs the engine with the saved configuration.
+     *
+     * @param args the run time in seconds (0 to run until Enter is pressed), the vendor count and the customer count
+     * @throws InterruptedException if the main thread is interrupted while running
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int runSeconds = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int vendorCount = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int customerCount = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        if (!new File("config.json").exists()) {
+            System.out.println("No configuration file found. Save a configuration with the console or JavaFX application first.");
+            return;
+        }
+        FileHandler handler = new FileHandler();
+        handler.loadFromFile("config.json");
+
+        TicketPool ticketPool = new TicketPool(handler.getTotalTickets(), handler.getMaxTicketCapacity());
+        PricingEngine pricingEngine = new PricingEngine(TicketingSystem.BASE_TICKET_PRICE,
+                customerCount * handler.getCustomerRetrievalRate());
+        ticketPool.setPricingEngine(pricingEngine);
+        pricingEngine.start();
+
+        LifecycleController controller = new LifecycleController(ticketPool);
+        if (ReleaseRateController.isAdaptiveReleaseRequested()) {
+            controller.enableAdaptiveRelease(ReleaseRateController.DEFAULT_TARGET_OCCUPANCY,
+                    ReleaseRateController.DEFAULT_TARGET_WAIT_MILLIS);
+        }
+        controller.start(vendorCount, handler.getTicketReleaseRate(), customerCount, handler.getCustomerRetrievalRate());
+
+        if (runSeconds > 0) {
+            Thread.sleep(runSeconds * 1000L);
+        } else {
+            System.out.println("Press Enter to stop the server...");
+            new Scanner(System.in).nextLine();
+        }
+        System.out.println(controller.stop(TicketingSystem.STOP_TIMEOUT_MILLIS));
+        pricingEngine.stop();
+    }
+}
@@ -0,0 +1,346 @@
+package core;
+
+import monitoring.LifecycleEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import threads.Customer;
+import threads.ReleaseRateController;
+import threads.Vendor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the vendor and customer threads of a ticket pool and controls their lifecycle.
+ * Agents sleep and pause on a condition owned by this controller instead of {@link Thread#sleep},
+ * so every state change wakes them immediately and stopping takes milliseconds rather than seconds.
+ */
+public class LifecycleController {
+    private static final Logger logger = LogManager.getLogger(LifecycleController.class);
+    private static final long MIN_STOP_MILLIS = 100; // Join budget left for stop when a drain uses up its timeout
+
+    /**
+     * The lifecycle states of the controller.
+     */
+    public enum State {
+        /** Threads have not been started yet. */
+        CREATED,
+        /** Vendors and customers are running. */
+        RUNNING,
+        /** Vendors and customers are parked until resumed. */
+        PAUSED,
+        /** Vendors have stopped and customers are buying the remaining tickets. */
+        DRAINING,
+        /** All threads have been asked to stop. */
+        STOPPED
+    }
+
+    private final TicketPool ticketPool;
+    private final String agentNamePrefix;   // Put before "Vendor 1" and "Customer 1" in thread names
+    private final List<Thread> agents = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final AtomicInteger inFlightOperations = new AtomicInteger();
+    private volatile State state = State.CREATED;
+    private boolean adaptiveRelease;        // Vendors adjust their release rate with a ReleaseRateController
+    private double targetOccupancy;
+    private long targetWaitMillis;
+
+    /**
+     * Creates a controller for the given ticket pool.
+     *
+     * @param ticketPool the pool the agent threads will use
+     */
+    public LifecycleController(TicketPool ticketPool) {
+        this(ticketPool, "");
+    }
+
+    /**
+     * Creates a controller for the given ticket pool whose thread names start with a prefix, so agents of
+     * different pools can be told apart in the logs and the event history.
+     *
+     * @param ticketPool      the pool the agent threads will use
+     * @param agentNamePrefix the text put before each thread name, for example "VIP "
+     */
+    public LifecycleController(TicketPool ticketPool, String agentNamePrefix) {
+        this.ticketPool = ticketPool;
+        this.agentNamePrefix = agentNamePrefix;
+    }
+
+    /**
+     * Makes vendors started by this controller adjust their release rate to hold the pool occupancy
+     * and customer wait time at the given targets, between 1 and twice the configured release rate.
+     * Must be called before {@link #start}.
+     *
+     * @param targetOccupancy  the fraction of the max ticket capacity to keep in the pool
+     * @param targetWaitMillis the average time a purchase may wait for tickets
+     */
+    public void enableAdaptiveRelease(double targetOccupancy, long targetWaitMillis) {
+        lock.lock();
+        try {
+            this.adaptiveRelease = true;
+            this.targetOccupancy = targetOccupancy;
+            this.targetWaitMillis = targetWaitMillis;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates and starts the vendor and customer threads.
+     *
+     * @param vendorCount           the number of vendor threads
+     * @param ticketReleaseRate     the number of tickets each vendor adds per second
+     * @param customerCount         the number of customer threads
+     * @param customerRetrievalRate the number of tickets each customer buys per second
+     * @throws IllegalStateException if the controller has already been started
+     */
+    public void start(int vendorCount, int ticketReleaseRate, int customerCount, int customerRetrievalRate) {
+        lock.lock();
+        try {
+            if (state != State.CREATED) {
+                throw new IllegalStateException("Controller has already been started");
+            }
+            ticketPool.open();
+            for (int i = 0; i < vendorCount; i++) {
+                ReleaseRateController rateController = adaptiveRelease
+                        ? new ReleaseRateController(ticketPool, ticketReleaseRate, 1, ticketReleaseRate * 2,
+                        targetOccupancy, targetWaitMillis)
+                        : null;
+                agents.add(new Thread(new Vendor(ticketPool, ticketReleaseRate, this, rateController), agentNamePrefix + "Vendor " + (i + 1)));
+            }
+            for (int i = 0; i < customerCount; i++) {
+                agents.add(new Thread(new Customer(ticketPool, customerRetrievalRate, this), agentNamePrefix + "Customer " + (i + 1)));
+            }
+            changeState(State.RUNNING);
+            for (Thread agent : agents) {
+                agent.start();
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Started " + vendorCount + " vendors and " + customerCount + " customers");
+    }
+
+    /**
+     * Parks all agent threads after their current operation.
+     */
+    public void pause() {
+        lock.lock();
+        try {
+            if (state == State.RUNNING) {
+                changeState(State.PAUSED);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Resumes agent threads that were paused.
+     */
+    public void resume() {
+        lock.lock();
+        try {
+            if (state == State.PAUSED) {
+                changeState(State.RUNNING);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the vendors and lets customers buy the remaining tickets, then stops all threads.
+     * If the pool is not empty when the timeout expires, the remaining tickets are left unsold.
+     * Stopping the threads always gets at least 100 ms of its own, so a drain that times out still lets
+     * threads finish their current operation instead of reporting them all as still running.
+     *
+     * @param timeoutMillis the maximum time to wait for the pool to drain, and the threads to stop if time is left
+     * @return a report of the work left when the threads stopped
+     */
+    public ShutdownReport drain(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            if (state == State.RUNNING || state == State.PAUSED) {
+                changeState(State.DRAINING);
+            }
+        } finally {
+            lock.unlock();
+        }
+        ticketPool.endReleases();
+
+        lock.lock();
+        try {
+            long remaining = deadline - System.nanoTime();
+            while (state == State.DRAINING && ticketPool.getAvailabilitySnapshot().getAvailableTickets() > 0 && remaining > 0) {
+                remaining = stateChanged.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        return stop(Math.max(MIN_STOP_MILLIS, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+    }
+
+    /**
+     * Stops all agent threads. Threads are woken from sleeps, pauses and pool waits at once;
+     * any thread still running after half the timeout is interrupted.
+     *
+     * @param timeoutMillis the maximum time to wait for the threads to stop
+     * @return a report of the work in flight when stop was requested
+     */
+    public ShutdownReport stop(long timeoutMillis) {
+        long startTime = System.nanoTime();
+        long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            changeState(State.STOPPED);
+        } finally {
+            lock.unlock();
+        }
+        int inFlight = inFlightOperations.get();
+        ticketPool.close();
+
+        // Give threads half the budget to leave on their own before interrupting them
+        joinAgents(startTime + (deadline - startTime) / 2);
+        for (Thread agent : agents) {
+            if (agent.isAlive()) {
+                agent.interrupt();
+            }
+        }
+        joinAgents(deadline);
+
+        int stillRunning = 0;
+        for (Thread agent : agents) {
+            if (agent.isAlive()) {
+                stillRunning++;
+            }
+        }
+        ShutdownReport report = new ShutdownReport(inFlight, agents.size() - stillRunning, stillRunning,
+                ticketPool.getAvailableTickets(), ticketPool.getTotalTicketsSold(), ticketPool.getTicketsVoided(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        logger.info(report.toString());
+        return report;
+    }
+
+    /**
+     * Gets the current lifecycle state.
+     *
+     * @return the state of the controller
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Blocks while the controller is paused and reports whether the calling agent should keep working.
+     * Vendors stop as soon as the controller starts draining, customers keep going until it stops.
+     *
+     * @param vendor true if the caller is a vendor thread
+     * @return true if the agent should perform another operation
+     * @throws InterruptedException if the thread is interrupted while paused
+     */
+    public boolean awaitRunnable(boolean vendor) throws InterruptedException {
+        State current = state;
+        if (current == State.RUNNING) {
+            return true;
+        }
+        lock.lock();
+        try {
+            while (state == State.PAUSED || state == State.CREATED) {
+                stateChanged.await();
+            }
+            return state == State.RUNNING || (state == State.DRAINING && !vendor);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sleeps between agent operations. Returns early as soon as the controller leaves the running state.
+     *
+     * @param millis the time to sleep in milliseconds
+     * @throws InterruptedException if the thread is interrupted while sleeping
+     */
+    public void sleep(long millis) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(millis);
+            while (state == State.RUNNING && remaining > 0) {
+                remaining = stateChanged.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a pool operation by an agent thread.
+     */
+    public void beginOperation() {
+        inFlightOperations.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of a pool operation by an agent thread.
+     * While draining, this wakes the controller so it can check whether the pool is empty.
+     */
+    public void endOperation() {
+        inFlightOperations.decrementAndGet();
+        if (state == State.DRAINING) {
+            lock.lock();
+            try {
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Changes the state and wakes every thread waiting on the controller. Must hold the lock.
+     *
+     * @param newState the state to move to
+     */
+    private void changeState(State newState) {
+        if (state != newState) {
+            logger.info("Lifecycle state changed from " + state + " to " + newState);
+            LifecycleEvent event = new LifecycleEvent();
+            if (event.shouldCommit()) {
+                event.poolId = ticketPool.getPoolId();
+                event.fromState = state.name();
+                event.toState = newState.name();
+                event.availableTickets = ticketPool.getAvailabilitySnapshot().getAvailableTickets();
+                event.commit();
+            }
+            state = newState;
+        }
+        stateChanged.signalAll();
+    }
+
+    /**
+     * Waits for the agent threads to terminate until the given deadline.
+     *
+     * @param deadline the deadline as a {@link System#nanoTime()} value
+     */
+    private void joinAgents(long deadline) {
+        try {
+            for (Thread agent : agents) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedJoin(agent, remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
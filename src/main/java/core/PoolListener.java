@@ -0,0 +1,36 @@
+package core;
+
+/**
+ * A listener notified of activity in a {@link TicketPool}.
+ * The core engine only depends on this interface, so user interfaces such as the JavaFX
+ * log view can observe the pool without the core pulling in their libraries.
+ * Callbacks are made while the pool's monitor is held, so implementations must return quickly.
+ * Exceptions thrown by a callback are logged by the pool and otherwise ignored.
+ */
+public interface PoolListener {
+    /**
+     * Called after a vendor adds tickets to the pool.
+     *
+     * @param agentName     the name of the vendor thread
+     * @param ticketsAdded  the number of tickets added
+     * @param ticketsInPool the number of tickets in the pool afterwards
+     */
+    void ticketsAdded(String agentName, int ticketsAdded, int ticketsInPool);
+
+    /**
+     * Called after a customer buys tickets from the pool.
+     *
+     * @param agentName        the name of the customer thread
+     * @param ticketsBought    the number of tickets bought
+     * @param ticketsInPool    the number of tickets remaining in the pool
+     * @param totalTicketsSold the total number of tickets sold so far
+     */
+    void ticketsSold(String agentName, int ticketsBought, int ticketsInPool, int totalTicketsSold);
+
+    /**
+     * Called for other pool status messages, such as vendors or customers stopping.
+     *
+     * @param message the status message
+     */
+    void message(String message);
+}
@@ -0,0 +1,52 @@
+package core;
+
+/**
+ * An immutable snapshot of an event's current ticket price.
+ * Instances are published by the {@link PricingEngine} so readers get the price
+ * and the sales velocity it was based on from a single volatile read.
+ */
+public final class PriceQuote {
+    private final double price;
+    private final double salesPerSecond;
+    private final long timestamp;
+
+    /**
+     * Creates a new price quote.
+     *
+     * @param price          the ticket price
+     * @param salesPerSecond the sales velocity the price was computed from
+     * @param timestamp      the time the quote was computed, in epoch milliseconds
+     */
+    public PriceQuote(double price, double salesPerSecond, long timestamp) {
+        this.price = price;
+        this.salesPerSecond = salesPerSecond;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Gets the ticket price.
+     *
+     * @return the price of a single ticket
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Gets the sales velocity the price was computed from.
+     *
+     * @return tickets sold per second over the sales window
+     */
+    public double getSalesPerSecond() {
+        return salesPerSecond;
+    }
+
+    /**
+     * Gets the time the quote was computed.
+     *
+     * @return the timestamp in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
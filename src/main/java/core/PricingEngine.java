@@ -0,0 +1,127 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes an event's ticket price from its recent sales velocity.
+ * Sales are recorded into a {@link SalesWindow} from the sale path, while a single background
+ * thread advances the window and recomputes the price once per bucket.
+ * The latest price is published as an immutable {@link PriceQuote}, so reading it costs one volatile read.
+ */
+public class PricingEngine {
+    private static final Logger logger = LogManager.getLogger(PricingEngine.class);
+    private static final double SENSITIVITY = 0.5;     // Price change per unit of relative demand
+    private static final double MIN_MULTIPLIER = 0.8;  // Lowest price as a fraction of the base price
+    private static final double MAX_MULTIPLIER = 2.0;  // Highest price as a multiple of the base price
+
+    private final double basePrice;
+    private final double targetSalesPerSecond;
+    private final long bucketMillis;
+    private final SalesWindow salesWindow;
+    private volatile PriceQuote currentQuote;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a pricing engine using a ten second window of one second buckets.
+     *
+     * @param basePrice            the price charged when sales match the target velocity
+     * @param targetSalesPerSecond the expected number of tickets sold per second
+     */
+    public PricingEngine(double basePrice, double targetSalesPerSecond) {
+        this(basePrice, targetSalesPerSecond, 10, 1000);
+    }
+
+    /**
+     * Creates a pricing engine.
+     *
+     * @param basePrice            the price charged when sales match the target velocity
+     * @param targetSalesPerSecond the expected number of tickets sold per second
+     * @param bucketCount          the number of buckets in the sales window
+     * @param bucketMillis         the length of each bucket in milliseconds
+     */
+    public PricingEngine(double basePrice, double targetSalesPerSecond, int bucketCount, long bucketMillis) {
+        if (basePrice <= 0 || targetSalesPerSecond <= 0 || bucketMillis <= 0) {
+            throw new IllegalArgumentException("Base price, target sales and bucket length must be positive");
+        }
+        this.basePrice = basePrice;
+        this.targetSalesPerSecond = targetSalesPerSecond;
+        this.bucketMillis = bucketMillis;
+        this.salesWindow = new SalesWindow(bucketCount);
+        this.currentQuote = new PriceQuote(basePrice, 0, System.currentTimeMillis());
+    }
+
+    /**
+     * Records sold tickets. Called from the sale path, so it only updates the sales window.
+     *
+     * @param tickets the number of tickets sold
+     */
+    public void recordSale(int tickets) {
+        salesWindow.record(tickets);
+    }
+
+    /**
+     * Gets the latest published price quote.
+     *
+     * @return the current price quote
+     */
+    public PriceQuote getCurrentQuote() {
+        return currentQuote;
+    }
+
+    /**
+     * Gets the current ticket price.
+     *
+     * @return the price of a single ticket
+     */
+    public double getCurrentPrice() {
+        return currentQuote.getPrice();
+    }
+
+    /**
+     * Starts the background thread that recomputes the price once per bucket.
+     * Calling this method on a running engine has no effect.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Pricing Engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::recompute, bucketMillis, bucketMillis, TimeUnit.MILLISECONDS);
+        logger.info("Pricing engine started with base price " + basePrice);
+    }
+
+    /**
+     * Stops the background pricing thread. The last published price stays available.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Recomputes the price from the sales window and publishes a new quote,
+     * then advances the window so the oldest bucket is dropped.
+     */
+    void recompute() {
+        double windowSeconds = salesWindow.getBucketCount() * bucketMillis / 1000.0;
+        double salesPerSecond = salesWindow.total() / windowSeconds;
+
+        // Scale the price with demand relative to the target, within fixed bounds
+        double demand = (salesPerSecond - targetSalesPerSecond) / targetSalesPerSecond;
+        double multiplier = Math.max(MIN_MULTIPLIER, Math.min(MAX_MULTIPLIER, 1 + SENSITIVITY * demand));
+        currentQuote = new PriceQuote(basePrice * multiplier, salesPerSecond, System.currentTimeMillis());
+
+        salesWindow.advance();
+    }
+}
@@ -0,0 +1,213 @@
+package core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token bucket rate limiting for ticket purchases.
+ * Each client may make bursts of up to {@code burst} purchases, refilled at {@code purchasesPerSecond}.
+ *
+ * <p>A bucket is stored as a single timestamp, the time at which it will be full again, so refilling is
+ * lazy: nothing runs in the background and a check is one timestamp comparison. Buckets live in primitive
+ * open-addressing tables split into stripes, each with its own lock, so checks for different clients rarely
+ * contend and a check allocates nothing. A bucket that has been full for longer than the idle timeout behaves
+ * exactly like a missing one, so it is dropped whenever its stripe fills up or {@link #evictIdle()} runs,
+ * which keeps memory bounded by the number of recently active clients.
+ */
+public class PurchaseRateLimiter {
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+    private final long nanosPerPurchase;
+    private final long burstNanos;
+    private final long idleNanos;
+    private final long origin = System.nanoTime();
+    private final Stripe[] stripes;
+
+    /**
+     * One lock-protected open-addressing table of client IDs and the times their buckets are full again.
+     * A zero time marks an empty slot, which is why times are measured from the limiter's origin plus one.
+     */
+    private static final class Stripe {
+        private long[] clientIds = new long[INITIAL_STRIPE_CAPACITY];
+        private long[] fullAt = new long[INITIAL_STRIPE_CAPACITY];
+        private int size;
+        private long denied;
+    }
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param purchasesPerSecond the sustained purchase rate allowed for each client
+     * @param burst              the number of purchases a client may make at once after being idle
+     * @param idleMillis         how long a client's bucket is kept after it has refilled
+     */
+    public PurchaseRateLimiter(double purchasesPerSecond, int burst, long idleMillis) {
+        if (purchasesPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.nanosPerPurchase = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / purchasesPerSecond));
+        this.burstNanos = nanosPerPurchase * burst;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        int stripeCount = 1;
+        while (stripeCount < Runtime.getRuntime().availableProcessors() * 4) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes one purchase from a client's bucket.
+     *
+     * @param clientId the client making the purchase
+     * @return true if the purchase is allowed, false if the client is over its limit
+     */
+    public boolean tryAcquire(long clientId) {
+        return tryAcquire(clientId, 1);
+    }
+
+    /**
+     * Takes a number of purchases from a client's bucket, all or nothing.
+     *
+     * @param clientId  the client making the purchases
+     * @param purchases the number of purchases to take
+     * @return true if the purchases are allowed, false if the client is over its limit
+     */
+    public boolean tryAcquire(long clientId, int purchases) {
+        long now = System.nanoTime() - origin + 1;
+        long hash = mix(clientId);
+        Stripe stripe = stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+        synchronized (stripe) {
+            int slot = findSlot(stripe, clientId, (int) hash);
+            // A bucket that is full again, or was never used, starts from now
+            long fullAt = Math.max(stripe.fullAt[slot], now) + nanosPerPurchase * purchases;
+            if (fullAt - now > burstNanos) {
+                stripe.denied++;
+                return false;
+            }
+            if (stripe.fullAt[slot] == 0) {
+                if (stripe.size + 1 > stripe.clientIds.length * 3 / 4) {
+                    rebuild(stripe, now);
+                    slot = findSlot(stripe, clientId, (int) hash);
+                }
+                stripe.clientIds[slot] = clientId;
+                stripe.size++;
+            }
+            stripe.fullAt[slot] = fullAt;
+            return true;
+        }
+    }
+
+    /**
+     * Drops the buckets of every client that has been idle for longer than the idle timeout.
+     *
+     * @return the number of buckets dropped
+     */
+    public int evictIdle() {
+        long now = System.nanoTime() - origin + 1;
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                int before = stripe.size;
+                rebuild(stripe, now);
+                evicted += before - stripe.size;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Gets the number of client buckets currently held.
+     *
+     * @return the bucket count
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of purchases refused since the limiter was created.
+     *
+     * @return the denied purchase count
+     */
+    public long getDeniedCount() {
+        long denied = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                denied += stripe.denied;
+            }
+        }
+        return denied;
+    }
+
+    /**
+     * Finds the slot holding a client, or the empty slot where it would be inserted, by linear probing.
+     * Must be called while holding the stripe's lock.
+     *
+     * @param stripe   the stripe to search
+     * @param clientId the client to find
+     * @param hash     the client's hash
+     * @return the slot index
+     */
+    private int findSlot(Stripe stripe, long clientId, int hash) {
+        int mask = stripe.clientIds.length - 1;
+        int slot = hash & mask;
+        while (stripe.fullAt[slot] != 0 && stripe.clientIds[slot] != clientId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Rehashes a stripe without its idle buckets, doubling its size if it is still more than half full.
+     * This is the only place the limiter allocates. Must be called while holding the stripe's lock.
+     *
+     * @param stripe the stripe to rebuild
+     * @param now    the current time since the limiter's origin
+     */
+    private void rebuild(Stripe stripe, long now) {
+        long[] oldIds = stripe.clientIds;
+        long[] oldFullAt = stripe.fullAt;
+        int live = 0;
+        for (long fullAt : oldFullAt) {
+            if (fullAt != 0 && now - fullAt <= idleNanos) {
+                live++;
+            }
+        }
+        int capacity = INITIAL_STRIPE_CAPACITY;
+        while (live * 2 >= capacity) {
+            capacity <<= 1;
+        }
+        if (live == stripe.size && capacity == oldIds.length) {
+            return; // Nothing idle and no need to grow
+        }
+        stripe.clientIds = new long[capacity];
+        stripe.fullAt = new long[capacity];
+        stripe.size = 0;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldFullAt[i] != 0 && now - oldFullAt[i] <= idleNanos) {
+                int slot = findSlot(stripe, oldIds[i], (int) mix(oldIds[i]));
+                stripe.clientIds[slot] = oldIds[i];
+                stripe.fullAt[slot] = oldFullAt[i];
+                stripe.size++;
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a client ID so sequential IDs land in different stripes and slots.
+     *
+     * @param clientId the client ID
+     * @return the mixed hash
+     */
+    private static long mix(long clientId) {
+        long hash = clientId * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+}
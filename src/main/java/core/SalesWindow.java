@@ -0,0 +1,71 @@
+package core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A sliding-window counter of recent ticket sales.
+ * The window is split into fixed-length buckets, each backed by a striped {@link LongAdder},
+ * so concurrent customer threads recording sales never contend on a single counter.
+ * Only the pricing thread advances the window, which keeps the sale path to a single add.
+ */
+public class SalesWindow {
+    private final LongAdder[] buckets;
+    private volatile int head; // Index of the bucket currently receiving sales
+
+    /**
+     * Creates a new sales window.
+     *
+     * @param bucketCount the number of buckets kept in the window
+     */
+    public SalesWindow(int bucketCount) {
+        if (bucketCount < 1) {
+            throw new IllegalArgumentException("Bucket count must be at least 1");
+        }
+        buckets = new LongAdder[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records sold tickets in the current bucket.
+     * This method is called from the sale path and never blocks.
+     *
+     * @param tickets the number of tickets sold
+     */
+    public void record(int tickets) {
+        buckets[head].add(tickets);
+    }
+
+    /**
+     * Advances the window by one bucket, discarding the oldest bucket.
+     * Must only be called from a single thread (the pricing thread).
+     */
+    public void advance() {
+        int next = (head + 1) % buckets.length;
+        buckets[next].reset();
+        head = next;
+    }
+
+    /**
+     * Sums the sales currently held in the window.
+     *
+     * @return the number of tickets sold within the window
+     */
+    public long total() {
+        long sum = 0;
+        for (LongAdder bucket : buckets) {
+            sum += bucket.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the number of buckets in the window.
+     *
+     * @return the bucket count
+     */
+    public int getBucketCount() {
+        return buckets.length;
+    }
+}
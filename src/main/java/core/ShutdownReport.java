@@ -0,0 +1,107 @@
+package core;
+
+/**
+ * A summary of the work that was in flight when a {@link LifecycleController} stopped.
+ */
+public final class ShutdownReport {
+    private final int inFlightOperations;
+    private final int agentsStopped;
+    private final int agentsStillRunning;
+    private final int ticketsRemaining;
+    private final int ticketsSold;
+    private final int ticketsVoided;
+    private final long elapsedMillis;
+
+    /**
+     * Creates a new shutdown report.
+     *
+     * @param inFlightOperations the number of pool operations running when stop was requested
+     * @param agentsStopped      the number of agent threads that terminated before the deadline
+     * @param agentsStillRunning the number of agent threads still alive after the deadline
+     * @param ticketsRemaining   the number of unsold tickets left in the pool
+     * @param ticketsSold        the total number of tickets sold
+     * @param ticketsVoided      the number of tickets taken out of sale because the record store refused them
+     * @param elapsedMillis      the time taken to stop, in milliseconds
+     */
+    public ShutdownReport(int inFlightOperations, int agentsStopped, int agentsStillRunning,
+                          int ticketsRemaining, int ticketsSold, int ticketsVoided, long elapsedMillis) {
+        this.inFlightOperations = inFlightOperations;
+        this.agentsStopped = agentsStopped;
+        this.agentsStillRunning = agentsStillRunning;
+        this.ticketsRemaining = ticketsRemaining;
+        this.ticketsSold = ticketsSold;
+        this.ticketsVoided = ticketsVoided;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Gets the number of pool operations that were running when stop was requested.
+     *
+     * @return the in-flight operation count
+     */
+    public int getInFlightOperations() {
+        return inFlightOperations;
+    }
+
+    /**
+     * Gets the number of agent threads that terminated before the deadline.
+     *
+     * @return the stopped agent count
+     */
+    public int getAgentsStopped() {
+        return agentsStopped;
+    }
+
+    /**
+     * Gets the number of agent threads still alive after the deadline.
+     *
+     * @return the running agent count
+     */
+    public int getAgentsStillRunning() {
+        return agentsStillRunning;
+    }
+
+    /**
+     * Gets the number of unsold tickets left in the pool.
+     *
+     * @return the remaining ticket count
+     */
+    public int getTicketsRemaining() {
+        return ticketsRemaining;
+    }
+
+    /**
+     * Gets the total number of tickets sold.
+     *
+     * @return the sold ticket count
+     */
+    public int getTicketsSold() {
+        return ticketsSold;
+    }
+
+    /**
+     * Gets the number of tickets taken out of sale because the record store refused to sell them.
+     *
+     * @return the voided ticket count
+     */
+    public int getTicketsVoided() {
+        return ticketsVoided;
+    }
+
+    /**
+     * Gets the time taken to stop.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Stopped in " + elapsedMillis + " ms. Agents stopped: " + agentsStopped +
+                ", still running: " + agentsStillRunning + ", in-flight operations: " + inFlightOperations +
+                ". Tickets remaining: " + ticketsRemaining + ", Total Tickets Sold: " + ticketsSold +
+                (ticketsVoided > 0 ? ", Tickets voided: " + ticketsVoided : "");
+    }
+}
@@ -1,10 +1,23 @@
 package core;
 
-import logger.TableLogger;
+import gate.GateValidator;
+import gate.TicketBitmap;
+import logger.EventHistory;
+import monitoring.LifecycleEvent;
+import monitoring.SoldOutEvent;
+import monitoring.TicketsAddedEvent;
+import monitoring.TicketsRemovedEvent;
+import store.TicketRecordStore;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A class representing a pool of tickets for an event.
@@ -14,19 +27,227 @@ import java.util.Queue;
  */
 public class TicketPool {
     private static final Logger logger = LogManager.getLogger(TicketPool.class);
+    private static final AtomicLong poolIds = new AtomicLong();
+    private final long poolId = poolIds.incrementAndGet(); // Global lock order for multi-pool purchases
     private final Queue<Integer> tickets = new LinkedList<>();
-    private final int maxTicketCapacity; // Maximum tickets for the event
+    private final Queue<Integer> refundedTickets = new ConcurrentLinkedQueue<>(); // Written by refunds without the monitor
+    private final Queue<Integer> returnedTickets = new ArrayDeque<>(); // Refunded tickets moved under the monitor, sold first
+    private volatile int maxTicketCapacity; // Maximum tickets for the event, can only be raised
     private int totalTicketsSold;       // Counter for tickets sold
+    private int totalTicketsRefunded;   // Counter for refunded tickets taken back into the pool
+    private int ticketsVoided;          // Tickets the TicketRecordStore refused to sell, out of sale for good
+    private volatile int waitingCustomers; // Customers in the removeTickets wait loop, written under the monitor
+    private final int firstTicketNumber; // Ticket numbers run from here to firstTicketNumber + maxTicketCapacity - 1
+    private final boolean fixedNumberRange; // The range is shared with other pools, so capacity cannot grow into it
     private int nextTicketNumber;       // Tracks the next ticket number to add
-    private TableLogger tableLogger;
+    private final TicketBitmap soldTickets = new TicketBitmap(); // Tickets held by buyers, cleared by refunds without the monitor
+    private int ticketsIssued;          // Ticket numbers issued so far, minted by vendors or imported
+    private BitSet importedTickets;     // Numbers added by bulk import, created on the first import so minting skips them
+    private PoolListener poolListener;
+    private PricingEngine pricingEngine;
+    private TicketRecordStore recordStore;
+    private EventHistory eventHistory;
+    private volatile PurchaseRateLimiter rateLimiter;
+    private volatile GateValidator gateValidator;
+    private volatile boolean releasesEnded; // No more tickets will be added, customers buy what is left
+    private volatile boolean closed;        // Pool is shut down, waiting customers return immediately
+    private volatile long customerWaitNanos; // Total time customers spent waiting for tickets, written under the monitor
+    private volatile long customerRequests;  // Number of removeTickets calls, written under the monitor
+    private boolean soldOutRecorded;          // A SoldOutEvent has been committed since tickets were last available
+    private volatile AvailabilitySnapshot snapshot; // Republished under the monitor after every change, read without it
+    private volatile int highWatermark;       // Vendors park at this pool depth, 0 when vendors are not bounded
+    private volatile int lowWatermark;        // Parked vendors resume once the pool depth falls below this
+    private final Queue<Thread> parkedVendors = new ConcurrentLinkedQueue<>(); // Vendors parked in awaitRoom
 
     /**
-     * Sets the TableLogger instance for logging purposes.
+     * Sets the PoolListener notified of tickets added and sold, such as the JavaFX log view.
      *
-     * @param tableLogger The TableLogger to be used for logging.
+     * @param poolListener The PoolListener to notify, or null for none.
      */
-    public void setTableLogger(TableLogger tableLogger) {
-        this.tableLogger = tableLogger;
+    public void setPoolListener(PoolListener poolListener) {
+        this.poolListener = poolListener;
+    }
+
+    /**
+     * Sets the PricingEngine that is notified of every sale.
+     *
+     * @param pricingEngine The PricingEngine used to price tickets for this event.
+     */
+    public void setPricingEngine(PricingEngine pricingEngine) {
+        this.pricingEngine = pricingEngine;
+    }
+
+    /**
+     * Sets the off-heap TicketRecordStore that keeps per-ticket status, owner and price.
+     * Tickets already in the pool are issued into the store straight away.
+     * The owner of a sold ticket is recorded as the ID of the thread that bought it.
+     *
+     * @param recordStore The TicketRecordStore, large enough for the pool's highest ticket number.
+     * @throws IllegalArgumentException If the store cannot hold every ticket number of the pool.
+     */
+    public synchronized void setRecordStore(TicketRecordStore recordStore) {
+        if (recordStore.getCapacity() < lastTicketNumber(maxTicketCapacity)) {
+            throw new IllegalArgumentException("Record store only holds " + recordStore.getCapacity() + " tickets");
+        }
+        this.recordStore = recordStore;
+        long priceCents = Math.round(getCurrentPrice() * 100);
+        drainRefunds();
+        for (int ticketNumber : returnedTickets) {
+            recordStore.issue(ticketNumber, priceCents);
+        }
+        for (int ticketNumber : tickets) {
+            recordStore.issue(ticketNumber, priceCents);
+        }
+    }
+
+    /**
+     * Sets the EventHistory that records every ticket added and sold, for later search.
+     * Tickets already in the pool are recorded as added by the "Initial Pool" agent.
+     *
+     * @param eventHistory The EventHistory to record into.
+     */
+    public synchronized void setEventHistory(EventHistory eventHistory) {
+        this.eventHistory = eventHistory;
+        int agentId = eventHistory.agentId("Initial Pool");
+        long now = System.currentTimeMillis();
+        for (int ticketNumber : tickets) {
+            eventHistory.record(EventHistory.EventType.ADDED, ticketNumber, agentId, now);
+        }
+    }
+
+    /**
+     * Gets the EventHistory of this pool.
+     *
+     * @return The EventHistory, or null if none has been set.
+     */
+    public synchronized EventHistory getEventHistory() {
+        return eventHistory;
+    }
+
+    /**
+     * Sets the PurchaseRateLimiter checked by {@link #purchaseTickets(long, int)} before a client may buy.
+     *
+     * @param rateLimiter The per-client rate limiter, or null to allow every purchase.
+     */
+    public void setRateLimiter(PurchaseRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sets the GateValidator that tickets are validated against at the venue gates.
+     * Every ticket sold from now on is marked as sold in it, and refunds are refused for tickets already scanned.
+     * Tickets sold before this call and not refunded are marked straight away from the pool's own record of sold
+     * tickets, so the validator can be set at any time, with or without a TicketRecordStore.
+     *
+     * @param gateValidator The GateValidator for this event, or null for none.
+     */
+    public synchronized void setGateValidator(GateValidator gateValidator) {
+        this.gateValidator = gateValidator;
+        if (gateValidator != null) {
+            soldTickets.forEach(ticketNumber -> {
+                gateValidator.markSold(ticketNumber);
+                // A refund that read no validator before this call cannot revoke the ticket, so undo it here
+                if (!soldTickets.contains(ticketNumber)) {
+                    gateValidator.revoke(ticketNumber);
+                }
+            });
+        }
+    }
+
+    /**
+     * Turns on bounded-producer mode. Vendors calling {@link #awaitRoom()} park once the pool holds highWatermark
+     * tickets and are resumed one at a time when sales take it below lowWatermark, so the pool stays warm without
+     * vendors spinning. Reaching maxTicketCapacity also parks vendors instead of stopping every vendor for good,
+     * so they carry on if the capacity is raised.
+     *
+     * @param highWatermark The pool depth at which vendors park, or 0 to turn bounded-producer mode off.
+     * @param lowWatermark The pool depth below which parked vendors resume, at most highWatermark.
+     */
+    public synchronized void setWatermarks(int highWatermark, int lowWatermark) {
+        if (highWatermark < 0 || lowWatermark < 0 || lowWatermark > highWatermark ||
+                (highWatermark > 0 && lowWatermark == 0)) {
+            throw new IllegalArgumentException("Watermarks must satisfy 0 < low <= high, or both be 0");
+        }
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        wakeAllVendors(); // Let parked vendors check against the new watermarks
+    }
+
+    /**
+     * Checks whether the pool is in bounded-producer mode. Its vendors then park at capacity instead of
+     * setting {@link TicketingSystem#vendorThreads}, and keep running whatever that flag says.
+     *
+     * @return True if a high watermark is set.
+     */
+    public boolean isBoundedProducer() {
+        return highWatermark > 0;
+    }
+
+    /**
+     * Raises the maximum number of tickets for the event, such as when more seats are opened.
+     * Vendors parked in bounded-producer mode because the capacity was reached resume issuing tickets.
+     *
+     * @param maxTicketCapacity The new maximum ticket capacity.
+     * @throws IllegalArgumentException If it is lower than the current capacity or larger than the record store.
+     * @throws IllegalStateException If the pool's ticket numbers are a fixed range shared with other pools.
+     */
+    public synchronized void raiseMaxTicketCapacity(int maxTicketCapacity) {
+        if (fixedNumberRange) {
+            throw new IllegalStateException("Ticket numbers " + firstTicketNumber + " to " +
+                    lastTicketNumber(this.maxTicketCapacity) + " are a fixed range, capacity cannot be raised");
+        }
+        if (maxTicketCapacity < this.maxTicketCapacity) {
+            throw new IllegalArgumentException("Max ticket capacity can only be raised");
+        }
+        if (recordStore != null && lastTicketNumber(maxTicketCapacity) > recordStore.getCapacity()) {
+            throw new IllegalArgumentException("Record store only holds " + recordStore.getCapacity() + " tickets");
+        }
+        this.maxTicketCapacity = maxTicketCapacity;
+        logger.info("Max ticket capacity raised to " + maxTicketCapacity);
+        publishSnapshot();
+        wakeAllVendors();
+    }
+
+    /**
+     * Parks the calling vendor while the pool is full in bounded-producer mode. A vendor parks when the pool
+     * depth has reached the high watermark or every ticket has been issued, and waits until the depth falls
+     * below the low watermark and there is capacity left, or the pool is closed or its releases are ended.
+     * The check reads the availability snapshot, so a vendor that has room never takes the monitor here.
+     * Returns straight away when bounded-producer mode is off.
+     *
+     * @throws InterruptedException If the thread is interrupted while parked.
+     */
+    public void awaitRoom() throws InterruptedException {
+        if (highWatermark == 0 || !isFull(snapshot, highWatermark)) {
+            return;
+        }
+        Thread vendor = Thread.currentThread();
+        try {
+            // Register before checking again so a sale in between cannot miss this vendor
+            while (highWatermark > 0 && !releasesEnded) {
+                parkedVendors.add(vendor);
+                if (!isFull(snapshot, lowWatermark)) {
+                    break;
+                }
+                LockSupport.park(this);
+                parkedVendors.remove(vendor);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            parkedVendors.remove(vendor);
+        }
+    }
+
+    /**
+     * Gets the current ticket price for this event.
+     *
+     * @return The current price, or 0 if no PricingEngine has been set.
+     */
+    public double getCurrentPrice() {
+        PricingEngine engine = pricingEngine;
+        return engine != null ? engine.getCurrentPrice() : 0;
     }
 
     /**
@@ -37,14 +258,46 @@ public class TicketPool {
      * @param maxTicketCapacity The maximum capacity of tickets in the pool.
      */
     public TicketPool(int totalTickets, int maxTicketCapacity) {
+        this(totalTickets, maxTicketCapacity, 1, false);
+    }
+
+    /**
+     * Creates a pool whose ticket numbers start at firstTicketNumber, for pools that share one number space,
+     * such as the tiers of an event. The pool only ever issues numbers from firstTicketNumber to
+     * firstTicketNumber + maxTicketCapacity - 1, so its capacity cannot be raised.
+     *
+     * @param totalTickets The total number of tickets to initialize in the pool.
+     * @param maxTicketCapacity The maximum capacity of tickets in the pool.
+     * @param firstTicketNumber The lowest ticket number of the pool, at least 1.
+     */
+    public TicketPool(int totalTickets, int maxTicketCapacity, int firstTicketNumber) {
+        this(totalTickets, maxTicketCapacity, firstTicketNumber, true);
+    }
+
+    /**
+     * Creates a pool filled with the first totalTickets numbers of its range.
+     *
+     * @param totalTickets The total number of tickets to initialize in the pool.
+     * @param maxTicketCapacity The maximum capacity of tickets in the pool.
+     * @param firstTicketNumber The lowest ticket number of the pool.
+     * @param fixedNumberRange True if the number range is shared with other pools and must not grow.
+     */
+    private TicketPool(int totalTickets, int maxTicketCapacity, int firstTicketNumber, boolean fixedNumberRange) {
+        if (firstTicketNumber < 1 || (long) firstTicketNumber + maxTicketCapacity - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ticket numbers must run from 1 to at most " + Integer.MAX_VALUE);
+        }
         this.maxTicketCapacity = maxTicketCapacity;
+        this.firstTicketNumber = firstTicketNumber;
+        this.fixedNumberRange = fixedNumberRange;
         this.totalTicketsSold = 0;
-        this.nextTicketNumber = totalTickets + 1;
+        this.nextTicketNumber = firstTicketNumber + totalTickets;
+        this.ticketsIssued = totalTickets;
 
         // Initialize the pool with `initialTickets`
-        for (int i = 1; i <= totalTickets; i++) {
-            tickets.add(i);
+        for (int i = 0; i < totalTickets; i++) {
+            tickets.add(firstTicketNumber + i);
         }
+        publishSnapshot();
     }
     /**
      * Adds tickets to the pool, up to the specified ticketReleaseRate.
@@ -55,93 +308,727 @@ public class TicketPool {
      * @throws InterruptedException If the thread is interrupted while waiting.
      */
     public synchronized void addTickets(int ticketReleaseRate) throws InterruptedException {
-        // Prevent exceeding maxTicketCapacity
-        while (tickets.size() + totalTicketsSold >= maxTicketCapacity) {
+        if (closed || releasesEnded) {
+            return;
+        }
+        TicketsAddedEvent event = new TicketsAddedEvent();
+        event.begin();
+        // Prevent exceeding maxTicketCapacity, refunded tickets are reused rather than issued again
+        while (ticketsIssued >= maxTicketCapacity) {
+            if (highWatermark > 0) {
+                notifyAll(); // Waiting customers buy what is left, vendors park in awaitRoom until capacity is raised
+                commitAdded(event, ticketReleaseRate, 0);
+                return;
+            }
             TicketingSystem.vendorThreads = true;
             notifyAll();
             logger.info("Vendor Threads Stopped");
-            if (tableLogger != null) {
-                tableLogger.logMessage("Vendor Threads Stopped");
+            if (poolListener != null) {
+                notifyMessage("Vendor Threads Stopped");
             }
+            commitAdded(event, ticketReleaseRate, 0);
             return;
         }
 
         // Calculate how many tickets can actually be added
-        int ticketsToAdd = Math.min(ticketReleaseRate, maxTicketCapacity - totalTicketsSold - tickets.size());
+        int ticketsToAdd = Math.min(ticketReleaseRate, maxTicketCapacity - ticketsIssued);
+        if (highWatermark > 0) {
+            ticketsToAdd = Math.max(0, Math.min(ticketsToAdd, highWatermark - availableTickets())); // Stop at the high watermark
+        }
+        long priceCents = recordStore != null ? Math.round(getCurrentPrice() * 100) : 0;
+        int agentId = eventHistory != null ? eventHistory.agentId(Thread.currentThread().getName()) : 0;
+        long now = System.currentTimeMillis();
         for (int i = 0; i < ticketsToAdd; i++) {
+            if (importedTickets != null) {
+                nextTicketNumber = importedTickets.nextClearBit(nextTicketNumber); // Skip imported numbers
+            }
+            if (recordStore != null) {
+                recordStore.issue(nextTicketNumber, priceCents);
+            }
+            if (eventHistory != null) {
+                eventHistory.record(EventHistory.EventType.ADDED, nextTicketNumber, agentId, now);
+            }
             tickets.add(nextTicketNumber++);
         }
+        ticketsIssued += ticketsToAdd;
 
         // Log the addition of tickets in a consolidated message
         if (ticketsToAdd > 0) {
             //Prevent NullPointer errors then running the javaCLI
-            if (tableLogger != null) {
-                //For the ListView
-                tableLogger.logMessage(Thread.currentThread().getName() + " added " + ticketsToAdd + " tickets. Total " +
-                        "tickets in pool: " + tickets.size());
+            if (poolListener != null) {
+                notifyAdded(Thread.currentThread().getName(), ticketsToAdd, availableTickets());
             }
             logger.info(Thread.currentThread().getName() + " added " + ticketsToAdd + " tickets. Total " +
-                    "tickets in pool: " + tickets.size());
+                    "tickets in pool: " + availableTickets());
         }
+        publishSnapshot();
+        commitAdded(event, ticketReleaseRate, ticketsToAdd);
         notifyAll(); // Notify waiting customers
     }
 
+    /**
+     * Adds a batch of specific ticket numbers to the pool, such as inventory imported from a promoter's file.
+     * The remaining capacity is checked once for the whole batch rather than per ticket. Numbers beyond the
+     * remaining capacity, outside the pool's number range, or already issued are skipped. Vendors never mint
+     * an imported number afterwards.
+     *
+     * @param ticketNumbers The ticket numbers to add.
+     * @param count The number of entries of ticketNumbers to use.
+     * @return The number of tickets added.
+     */
+    public synchronized int addTicketBatch(int[] ticketNumbers, int count) {
+        if (closed || releasesEnded) {
+            return 0;
+        }
+        TicketsAddedEvent event = new TicketsAddedEvent();
+        event.begin();
+        int room = maxTicketCapacity - ticketsIssued; // Single capacity check for the whole batch
+        if (importedTickets == null) {
+            importedTickets = new BitSet(lastTicketNumber(maxTicketCapacity) + 1);
+        }
+        long priceCents = recordStore != null ? Math.round(getCurrentPrice() * 100) : 0;
+        int agentId = eventHistory != null ? eventHistory.agentId(Thread.currentThread().getName()) : 0;
+        long now = System.currentTimeMillis();
+        int added = 0;
+        for (int i = 0; i < count && added < room; i++) {
+            int ticketNumber = ticketNumbers[i];
+            // Numbers below nextTicketNumber have already been minted or skipped over
+            if (ticketNumber < nextTicketNumber || ticketNumber > lastTicketNumber(maxTicketCapacity) || importedTickets.get(ticketNumber)) {
+                continue;
+            }
+            importedTickets.set(ticketNumber);
+            if (recordStore != null) {
+                recordStore.issue(ticketNumber, priceCents);
+            }
+            if (eventHistory != null) {
+                eventHistory.record(EventHistory.EventType.ADDED, ticketNumber, agentId, now);
+            }
+            tickets.add(ticketNumber);
+            added++;
+        }
+        ticketsIssued += added;
+
+        if (added > 0) {
+            if (poolListener != null) {
+                notifyAdded(Thread.currentThread().getName(), added, availableTickets());
+            }
+            logger.info(Thread.currentThread().getName() + " imported " + added + " tickets. Total " +
+                    "tickets in pool: " + availableTickets());
+        }
+        publishSnapshot();
+        commitAdded(event, count, added);
+        notifyAll(); // Notify waiting customers
+        return added;
+    }
+
+    /**
+     * Commits a TicketsAddedEvent if a flight recording wants it.
+     * Must be called while holding the pool's monitor.
+     *
+     * @param event The event begun when addTickets was entered.
+     * @param requested The number of tickets the vendor asked to add.
+     * @param added The number of tickets actually added.
+     */
+    private void commitAdded(TicketsAddedEvent event, int requested, int added) {
+        if (event.shouldCommit()) {
+            event.poolId = poolId;
+            event.agentName = Thread.currentThread().getName();
+            event.requested = requested;
+            event.batchSize = added;
+            event.poolDepth = availableTickets();
+            event.commit();
+        }
+    }
+
     /**
      * Removes tickets from the pool, up to the specified ticketRetrievalRate.
      * If there are insufficient tickets, the method waits for tickets to be added by the vendor threads.
      * When the maximum ticket capacity is reached, it stops customer threads from removing tickets.
      *
      * @param ticketRetrievalRate The number of tickets to remove from the pool.
+     * @return The ticket numbers bought, empty if the pool was closed before any could be bought.
      * @throws InterruptedException If the thread is interrupted while waiting.
      */
-    public synchronized void removeTickets(int ticketRetrievalRate) throws InterruptedException {
-        // Wait until there are enough tickets to fulfill the retrieval request or tickets are sold out
-        while (tickets.size() < ticketRetrievalRate && totalTicketsSold <= maxTicketCapacity) {
-            if (TicketingSystem.vendorThreads && !tickets.isEmpty()) {
-                int ticketsToBuy = tickets.size();
+    public synchronized int[] removeTickets(int ticketRetrievalRate) throws InterruptedException {
+        TicketsRemovedEvent event = new TicketsRemovedEvent();
+        event.begin();
+        int[] bought = awaitAndSell(ticketRetrievalRate, event);
+        commitRemoved(event, ticketRetrievalRate, bought.length);
+        return bought;
+    }
 
-                for (int i = 0; i < ticketsToBuy; i++) {
-                    tickets.poll();
-                    totalTicketsSold++;
-                }
-                if (tableLogger != null) {
-                    tableLogger.logMessage(Thread.currentThread().getName() + " bought " + ticketsToBuy + " tickets. Tickets " +
-                            "remaining in pool: " + tickets.size()+". Total Tickets Sold: "+totalTicketsSold);
-                }
-                logger.info(Thread.currentThread().getName() + " bought " + ticketsToBuy + " tickets. Tickets " +
-                        "remaining in pool: " + tickets.size()+". Total Tickets Sold: "+totalTicketsSold);
+    /**
+     * Commits a TicketsRemovedEvent if a flight recording wants it.
+     * Must be called while holding the pool's monitor.
+     *
+     * @param event The event begun when the purchase was entered.
+     * @param requested The number of tickets the customer asked for.
+     * @param bought The number of tickets actually bought.
+     */
+    private void commitRemoved(TicketsRemovedEvent event, int requested, int bought) {
+        if (event.shouldCommit()) {
+            event.poolId = poolId;
+            event.agentName = Thread.currentThread().getName();
+            event.requested = requested;
+            event.batchSize = bought;
+            event.poolDepth = availableTickets();
+            event.commit();
+        }
+    }
 
-                return;
+    /**
+     * Waits until enough tickets are available, or no more are coming, then sells them.
+     * Must be called while holding the pool's monitor.
+     *
+     * @param ticketRetrievalRate The number of tickets to remove from the pool.
+     * @param event The flight recorder event that collects the time spent waiting.
+     * @return The ticket numbers bought, empty if the pool was closed before any could be bought.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private int[] awaitAndSell(int ticketRetrievalRate, TicketsRemovedEvent event) throws InterruptedException {
+        customerRequests++;
+        // Counted before checking for refunds, so a refund queued after the check always sees this customer and wakes it
+        waitingCustomers++;
+        try {
+            return waitAndSell(ticketRetrievalRate, event);
+        } finally {
+            waitingCustomers--;
+        }
+    }
+
+    /**
+     * The wait loop of {@link #awaitAndSell}, run while the caller is counted in waitingCustomers.
+     * Must be called while holding the pool's monitor.
+     *
+     * @param ticketRetrievalRate The number of tickets to remove from the pool.
+     * @param event The flight recorder event that collects the time spent waiting.
+     * @return The ticket numbers bought, empty if the pool was closed or sold out before any could be bought.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private int[] waitAndSell(int ticketRetrievalRate, TicketsRemovedEvent event) throws InterruptedException {
+        // Wait until there are enough tickets to fulfill the retrieval request or tickets are sold out
+        while (availableTickets() < ticketRetrievalRate && ticketsHeld() <= maxTicketCapacity) {
+            if (closed) {
+                return new int[0];
+            }
+            // No more tickets are coming, so buy what is left without going over the retrieval rate
+            if ((TicketingSystem.vendorThreads || releasesEnded || (highWatermark > 0 && ticketsIssued >= maxTicketCapacity))
+                    && availableTickets() > 0) {
+                int[] bought = sellTickets(Math.min(ticketRetrievalRate, availableTickets()));
+                notifyAll(); // Notify waiting vendors
+                return bought;
             }
             // Stop customer threads if tickets are sold out and vendors are no longer running
-            if (totalTicketsSold == maxTicketCapacity && TicketingSystem.vendorThreads) {
+            if (ticketsHeld() == maxTicketCapacity && TicketingSystem.vendorThreads) {
                 TicketingSystem.customerThreads = true;
                 logger.info("Customer Threads Stopped");
                 //Prevent NullPointer errors then running the javaCLI
-                if (tableLogger != null) {
-                    tableLogger.logMessage("Customer Threads Stopped");
+                if (poolListener != null) {
+                    notifyMessage("Customer Threads Stopped");
                 }
+                return new int[0]; // Nothing is left to buy, so do not wait for tickets that will never come
+            }
+            long waitStart = System.nanoTime();
+            try {
+                wait();
+            } finally {
+                long waited = System.nanoTime() - waitStart;
+                customerWaitNanos += waited;
+                event.waitDuration += waited;
+                event.waits++;
             }
-            wait();
         }
 
         // Remove the calculated number of tickets from the pool and update total tickets sold
-        int ticketsToBuy = Math.min(ticketRetrievalRate, tickets.size());
-        for (int i = 0; i < ticketsToBuy; i++) {
-            tickets.poll();
-            totalTicketsSold++;
+        int[] bought = sellTickets(Math.min(ticketRetrievalRate, availableTickets()));
+        notifyAll(); // Notify waiting vendors
+        return bought;
+    }
+
+    /**
+     * Buys tickets on behalf of a client, after checking the client against the rate limiter.
+     * The check happens before the pool's monitor is taken, so clients over their limit are turned
+     * away without ever contending with other buyers.
+     *
+     * @param clientId The ID of the client buying, such as a customer thread ID or session ID.
+     * @param ticketRetrievalRate The number of tickets to buy.
+     * @return The ticket numbers bought, empty if the client is over its limit or the pool was closed.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public int[] purchaseTickets(long clientId, int ticketRetrievalRate) throws InterruptedException {
+        PurchaseRateLimiter limiter = rateLimiter;
+        if (limiter != null && !limiter.tryAcquire(clientId)) {
+            logger.debug("Client " + clientId + " is over its purchase rate limit");
+            return new int[0];
         }
+        return removeTickets(ticketRetrievalRate);
+    }
 
-        // Log a single consolidated message
-        if (ticketsToBuy > 0) {
-            //Prevent NullPointer errors then running the javaCLI
-            if (tableLogger != null) {
-                tableLogger.logMessage(Thread.currentThread().getName() + " bought " + ticketsToBuy + " tickets. Tickets " +
-                        "remaining in pool: " + tickets.size()+". Total Tickets Sold: "+totalTicketsSold);
+    /**
+     * Buys up to ticketRetrievalRate tickets without waiting, for callers that must never block,
+     * such as the single-threaded discrete-event simulator.
+     *
+     * @param ticketRetrievalRate The maximum number of tickets to buy.
+     * @return The ticket numbers bought, empty if the pool is closed or has no tickets.
+     */
+    public synchronized int[] tryRemoveTickets(int ticketRetrievalRate) {
+        TicketsRemovedEvent event = new TicketsRemovedEvent();
+        event.begin();
+        customerRequests++;
+        int[] bought = closed ? new int[0] : sellTickets(Math.min(ticketRetrievalRate, availableTickets()));
+        if (bought.length > 0) {
+            notifyAll(); // Notify waiting vendors
+        }
+        commitRemoved(event, ticketRetrievalRate, bought.length);
+        return bought;
+    }
+
+    /**
+     * Returns sold tickets to the pool so they can be sold again. Refunded tickets are sold ahead of newly
+     * released ones, and since their numbers were already issued they do not count against maxTicketCapacity again.
+     * Refunds never take the pool's monitor unless customers are waiting to be woken, so a wave of refunds
+     * does not hold up the sale path.
+     * Only tickets this pool has sold and not yet taken back are accepted, so a ticket that was never sold
+     * cannot be put on sale and a ticket cannot be refunded twice. When a TicketRecordStore is set, the ticket
+     * must also be recorded as sold there, so tickets listed for resale are refused.
+     * When a GateValidator is set, tickets it does not hold as sold, or whose holders have already been
+     * admitted at the gates, are refused as well.
+     *
+     * @param ticketNumbers The numbers of the tickets to refund.
+     * @return The number of tickets accepted for refund.
+     */
+    public int refundTickets(int... ticketNumbers) {
+        TicketRecordStore store = recordStore;
+        EventHistory history = eventHistory;
+        int agentId = history != null ? history.agentId(Thread.currentThread().getName()) : 0;
+        long now = System.currentTimeMillis();
+        int accepted = 0;
+        for (int ticketNumber : ticketNumbers) {
+            // Clearing the sold bit is the test-and-set that stops a ticket being refunded twice
+            if (ticketNumber < 1 || !soldTickets.remove(ticketNumber)) {
+                continue;
+            }
+            // Read after clearing the sold bit, so a validator set in between is seeded or sees this refund
+            GateValidator validator = gateValidator;
+            if (store != null && !store.transition(ticketNumber, TicketRecordStore.STATUS_SOLD, TicketRecordStore.STATUS_REFUNDED)) {
+                soldTickets.add(ticketNumber); // Listed for resale
+                if (validator != null) {
+                    validator.markSold(ticketNumber); // Seeding may have skipped it while the bit was clear
+                }
+                continue;
+            }
+            if (validator != null && !validator.revoke(ticketNumber)) {
+                if (store != null) {
+                    store.transition(ticketNumber, TicketRecordStore.STATUS_REFUNDED, TicketRecordStore.STATUS_SOLD);
+                }
+                soldTickets.add(ticketNumber); // The holder has already been admitted
+                continue;
             }
-            logger.info(Thread.currentThread().getName() + " bought " + ticketsToBuy + " tickets. Tickets " +
-                    "remaining in pool: " + tickets.size()+". Total Tickets Sold: "+totalTicketsSold);
+            if (store != null) {
+                store.transition(ticketNumber, TicketRecordStore.STATUS_REFUNDED, TicketRecordStore.STATUS_AVAILABLE);
+            }
+            if (history != null) {
+                history.record(EventHistory.EventType.REFUNDED, ticketNumber, agentId, now);
+            }
+            refundedTickets.add(ticketNumber);
+            accepted++;
+        }
+        if (accepted > 0) {
+            logger.info(Thread.currentThread().getName() + " refunded " + accepted + " tickets");
+            if (waitingCustomers > 0) {
+                synchronized (this) {
+                    notifyAll(); // Notify waiting customers
+                }
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Moves refunded tickets from the lock-free refund queue to the front of the sale order.
+     * Must be called while holding the pool's monitor.
+     */
+    private void drainRefunds() {
+        Integer ticketNumber;
+        boolean drained = false;
+        while ((ticketNumber = refundedTickets.poll()) != null) {
+            returnedTickets.add(ticketNumber);
+            totalTicketsRefunded++;
+            drained = true;
+        }
+        if (drained) {
+            soldOutRecorded = false;
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Publishes the current counts as a new immutable AvailabilitySnapshot.
+     * Must be called while holding the pool's monitor, after every change to the counts.
+     */
+    private void publishSnapshot() {
+        AvailabilitySnapshot previous = snapshot;
+        snapshot = new AvailabilitySnapshot(returnedTickets.size() + tickets.size(), totalTicketsSold,
+                ticketsIssued, maxTicketCapacity, closed, previous != null ? previous.getVersion() + 1 : 0);
+        // Below the low watermark, resume one parked vendor, each further change resumes the next
+        if (highWatermark > 0 && !parkedVendors.isEmpty() && !isFull(snapshot, lowWatermark)) {
+            Thread vendor = parkedVendors.poll();
+            if (vendor != null) {
+                LockSupport.unpark(vendor);
+            }
+        }
+    }
+
+    /**
+     * Checks whether vendors have no room to add tickets in bounded-producer mode.
+     *
+     * @param snapshot The snapshot to check.
+     * @param watermark The pool depth that counts as full.
+     * @return true if the pool holds at least watermark tickets or every ticket has been issued.
+     */
+    private static boolean isFull(AvailabilitySnapshot snapshot, int watermark) {
+        return snapshot.getAvailableTickets() >= watermark || snapshot.getTicketsIssued() >= snapshot.getMaxTicketCapacity();
+    }
+
+    /**
+     * Resumes every vendor parked in awaitRoom so they check the pool again.
+     */
+    private void wakeAllVendors() {
+        for (Thread vendor : parkedVendors) {
+            LockSupport.unpark(vendor);
         }
+    }
+
+    /**
+     * Counts the tickets that can be sold right now, including refunded ones.
+     * Must be called while holding the pool's monitor.
+     *
+     * @return The number of tickets available.
+     */
+    private int availableTickets() {
+        drainRefunds();
+        return returnedTickets.size() + tickets.size();
+    }
+
+    /**
+     * Counts the tickets that have left the pool for good, which is the tickets sold less the tickets refunded,
+     * plus the tickets voided because the TicketRecordStore refused them.
+     * Must be called while holding the pool's monitor.
+     *
+     * @return The number of tickets held by customers or voided.
+     */
+    private int ticketsHeld() {
+        return totalTicketsSold - totalTicketsRefunded + ticketsVoided;
+    }
+
+    /**
+     * Checks whether the pool can sell a number of tickets right now.
+     * Must be called while holding the pool's monitor.
+     *
+     * @param count The number of tickets wanted.
+     * @return true if the pool is open and holds at least count tickets.
+     */
+    boolean canSell(int count) {
+        return !closed && availableTickets() >= count;
+    }
+
+    /**
+     * Sells tickets as part of a multi-pool purchase that has already checked {@link #canSell(int)}.
+     * Must be called while holding the pool's monitor.
+     *
+     * @param count The number of tickets to sell.
+     * @return The ticket numbers sold.
+     */
+    int[] sellReserved(int count) {
+        TicketsRemovedEvent event = new TicketsRemovedEvent();
+        event.begin();
+        customerRequests++;
+        int[] bought = sellTickets(count);
         notifyAll(); // Notify waiting vendors
+        commitRemoved(event, count, bought.length);
+        return bought;
+    }
+
+    /**
+     * Checks without the monitor whether refunded tickets are waiting to be taken back into the pool.
+     * Such tickets are not yet counted in the availability snapshot.
+     *
+     * @return true if refunds are waiting to be drained.
+     */
+    boolean hasPendingRefunds() {
+        return !refundedTickets.isEmpty();
+    }
+
+    /**
+     * Gets the unique ID of this pool. Pools are always locked in ascending ID order
+     * when a purchase spans several of them, which rules out deadlocks.
+     *
+     * @return The pool ID.
+     */
+    public long getPoolId() {
+        return poolId;
+    }
+
+    /**
+     * Takes tickets from the head of the queue and records them as sold in a single consolidated message.
+     * Must be called while holding the pool's monitor.
+     *
+     * @param ticketsToBuy The number of tickets to take, no more than the tickets in the pool.
+     * @return The ticket numbers taken, fewer than asked for only if the TicketRecordStore refused some of them.
+     */
+    private int[] sellTickets(int ticketsToBuy) {
+        if (ticketsToBuy <= 0) {
+            return new int[0];
+        }
+        int[] bought = new int[ticketsToBuy];
+        long ownerId = Thread.currentThread().threadId();
+        long priceCents = recordStore != null ? Math.round(getCurrentPrice() * 100) : 0;
+        int agentId = eventHistory != null ? eventHistory.agentId(Thread.currentThread().getName()) : 0;
+        long now = System.currentTimeMillis();
+        int sold = 0;
+        while (sold < ticketsToBuy && !(returnedTickets.isEmpty() && tickets.isEmpty())) {
+            Integer returned = returnedTickets.poll();
+            int ticketNumber = returned != null ? returned : tickets.poll();
+            // A ticket the store does not hold as available is taken out of sale rather than handed out twice
+            if (recordStore != null && !recordStore.sell(ticketNumber, ownerId, priceCents)) {
+                logger.error("Ticket " + ticketNumber + " is not available in the record store (status " +
+                        recordStore.getStatus(ticketNumber) + "), removed from sale");
+                ticketsVoided++; // Counted as gone so the sold-out check still fires
+                continue;
+            }
+            bought[sold++] = ticketNumber;
+            soldTickets.add(ticketNumber);
+            totalTicketsSold++;
+            if (gateValidator != null) {
+                gateValidator.markSold(ticketNumber);
+            }
+            if (eventHistory != null) {
+                eventHistory.record(EventHistory.EventType.SOLD, ticketNumber, agentId, now);
+            }
+        }
+        if (sold < ticketsToBuy) {
+            bought = Arrays.copyOf(bought, sold);
+        }
+        if (pricingEngine != null) {
+            pricingEngine.recordSale(sold);
+        }
+
+        //Prevent NullPointer errors then running the javaCLI
+        if (poolListener != null) {
+            notifySold(Thread.currentThread().getName(), sold, availableTickets(), totalTicketsSold);
+        }
+        logger.info(Thread.currentThread().getName() + " bought " + sold + " tickets. Tickets " +
+                "remaining in pool: " + availableTickets()+". Total Tickets Sold: "+totalTicketsSold);
+        publishSnapshot();
+        if (!soldOutRecorded && ticketsIssued >= maxTicketCapacity && availableTickets() == 0) {
+            soldOutRecorded = true;
+            SoldOutEvent soldOut = new SoldOutEvent();
+            if (soldOut.shouldCommit()) {
+                soldOut.poolId = poolId;
+                soldOut.totalTicketsSold = totalTicketsSold;
+                soldOut.commit();
+            }
+        }
+        return bought;
+    }
+
+    /**
+     * Tells the PoolListener a status message. Exceptions it throws are logged, so a faulty user interface
+     * cannot break the vendor or customer holding the monitor.
+     *
+     * @param message The status message.
+     */
+    private void notifyMessage(String message) {
+        try {
+            poolListener.message(message);
+        } catch (RuntimeException e) {
+            logger.error("Pool listener failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tells the PoolListener that tickets were added, logging any exception it throws.
+     *
+     * @param agentName The name of the vendor thread.
+     * @param ticketsAdded The number of tickets added.
+     * @param ticketsInPool The number of tickets in the pool afterwards.
+     */
+    private void notifyAdded(String agentName, int ticketsAdded, int ticketsInPool) {
+        try {
+            poolListener.ticketsAdded(agentName, ticketsAdded, ticketsInPool);
+        } catch (RuntimeException e) {
+            logger.error("Pool listener failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tells the PoolListener that tickets were sold, logging any exception it throws.
+     *
+     * @param agentName The name of the customer thread.
+     * @param ticketsBought The number of tickets bought.
+     * @param ticketsInPool The number of tickets remaining in the pool.
+     * @param totalTicketsSold The total number of tickets sold so far.
+     */
+    private void notifySold(String agentName, int ticketsBought, int ticketsInPool, int totalTicketsSold) {
+        try {
+            poolListener.ticketsSold(agentName, ticketsBought, ticketsInPool, totalTicketsSold);
+        } catch (RuntimeException e) {
+            logger.error("Pool listener failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops any further tickets from being added to the pool.
+     * Waiting customers are woken so they can buy the tickets that are left.
+     */
+    public synchronized void endReleases() {
+        releasesEnded = true;
+        notifyAll();
+        wakeAllVendors();
+    }
+
+    /**
+     * Closes the pool. No tickets are added after this call and customers
+     * waiting for tickets are woken and return without buying.
+     */
+    public synchronized void close() {
+        LifecycleEvent event = new LifecycleEvent();
+        if (event.shouldCommit()) {
+            event.poolId = poolId;
+            event.fromState = closed ? "CLOSED" : releasesEnded ? "RELEASES_ENDED" : "OPEN";
+            event.toState = "CLOSED";
+            event.availableTickets = availableTickets();
+            event.commit();
+        }
+        closed = true;
+        releasesEnded = true;
+        publishSnapshot();
+        notifyAll();
+        wakeAllVendors();
+    }
+
+    /**
+     * Reopens a pool that was closed or had its releases ended, so new threads can use it again.
+     */
+    public synchronized void open() {
+        closed = false;
+        releasesEnded = false;
+        publishSnapshot();
+    }
+
+    /**
+     * Checks whether the pool has been closed.
+     *
+     * @return true if the pool is closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Gets the latest availability snapshot without taking the pool's monitor, so frequent polling
+     * by user interfaces and clients never contends with sales. Refunded tickets are counted once the
+     * pool next takes them in, on its next sale, release or locked read.
+     *
+     * @return The available, sold and issued counts from a single point in time.
+     */
+    public AvailabilitySnapshot getAvailabilitySnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the number of tickets currently available in the pool.
+     *
+     * @return The number of tickets waiting to be bought.
+     */
+    public synchronized int getAvailableTickets() {
+        return availableTickets();
+    }
+
+    /**
+     * Gets the total number of tickets sold from the pool.
+     *
+     * @return The number of tickets sold.
+     */
+    public synchronized int getTotalTicketsSold() {
+        return totalTicketsSold;
+    }
+
+    /**
+     * Gets the total number of refunded tickets taken back into the pool.
+     *
+     * @return The number of tickets refunded.
+     */
+    public synchronized int getTotalTicketsRefunded() {
+        drainRefunds();
+        return totalTicketsRefunded;
+    }
+
+    /**
+     * Gets the number of tickets taken out of sale because the TicketRecordStore refused to sell them.
+     *
+     * @return The number of tickets voided.
+     */
+    public synchronized int getTicketsVoided() {
+        return ticketsVoided;
+    }
+
+    /**
+     * Gets the number of ticket numbers issued so far, sold or not.
+     * Vendors issue ticket numbers in order, so without bulk imports they run from the first ticket number
+     * to the first ticket number plus this value, less one.
+     *
+     * @return The number of tickets issued.
+     */
+    public synchronized int getTicketsIssued() {
+        return ticketsIssued;
+    }
+
+    /**
+     * Gets the lowest ticket number of the pool, which is 1 unless the pool shares its number space.
+     *
+     * @return The first ticket number.
+     */
+    public int getFirstTicketNumber() {
+        return firstTicketNumber;
+    }
+
+    /**
+     * Gets the highest ticket number the pool can issue at a given capacity.
+     *
+     * @param maxTicketCapacity The capacity.
+     * @return The last ticket number.
+     */
+    private int lastTicketNumber(int maxTicketCapacity) {
+        return firstTicketNumber + maxTicketCapacity - 1;
+    }
+
+    /**
+     * Gets the total time customers have spent waiting for tickets in removeTickets.
+     * This can be read without taking the pool's monitor.
+     *
+     * @return The accumulated wait time in nanoseconds.
+     */
+    public long getCustomerWaitNanos() {
+        return customerWaitNanos;
+    }
+
+    /**
+     * Gets the number of purchase requests made through removeTickets.
+     * This can be read without taking the pool's monitor.
+     *
+     * @return The number of purchase requests.
+     */
+    public long getCustomerRequests() {
+        return customerRequests;
+    }
+
+    /**
+     * Gets the maximum number of tickets for the event.
+     *
+     * @return The maximum ticket capacity.
+     */
+    public int getMaxTicketCapacity() {
+        return maxTicketCapacity;
     }
 }
@@ -1,8 +1,7 @@
 package core;
 import java.util.*;
 import config.Configuration;
-import threads.Vendor;
-import threads.Customer;
+import threads.ReleaseRateController;
 
 /**
  * The main class that manages the ticketing system.
@@ -18,11 +17,19 @@ public class TicketingSystem {
     /**
      * Flag to control vendor threads. Set to true to signal threads to stop.
      */
-    public static boolean vendorThreads = false;
+    public static volatile boolean vendorThreads = false;
     /**
      * Flag to control customer threads. Set to true to signal threads to stop.
      */
-    public static boolean customerThreads = false;
+    public static volatile boolean customerThreads = false;
+    /**
+     * Ticket price charged when sales run at the expected customer demand.
+     */
+    public static final double BASE_TICKET_PRICE = 50.0;
+    /**
+     * Maximum time, in milliseconds, given to vendor and customer threads to stop.
+     */
+    public static final long STOP_TIMEOUT_MILLIS = 500;
 
 
     /**
@@ -50,26 +57,28 @@ public class TicketingSystem {
         int customer_count = config.vendCustom_configuration("Customer");
         System.out.println("Press Enter to stop all threads...");
 
-        //Creating Vendor threads based on the user input
-        for (int i = 0; i < vendor_count; i++) {
-            Thread vendor_thread = new Thread(new Vendor(ticketPool, ticketReleaseRate),"Vendor "+(i+1));
-            vendor_thread.start();
-        }
+        // Price tickets from sales velocity, expecting every customer to buy at their retrieval rate
+        PricingEngine pricingEngine = new PricingEngine(BASE_TICKET_PRICE, customer_count * customerRetrievalRate);
+        ticketPool.setPricingEngine(pricingEngine);
+        pricingEngine.start();
 
-        //Creating Customer threads based on the user input
-        for (int i = 0; i < customer_count; i++) {
-            Thread custormer_thread = new Thread(new Customer(ticketPool, customerRetrievalRate),"Customer "+(i+1));
-            custormer_thread.start();
+        //Creating Vendor and Customer threads based on the user input
+        LifecycleController controller = new LifecycleController(ticketPool);
+        if (ReleaseRateController.isAdaptiveReleaseRequested()) {
+            controller.enableAdaptiveRelease(ReleaseRateController.DEFAULT_TARGET_OCCUPANCY,
+                    ReleaseRateController.DEFAULT_TARGET_WAIT_MILLIS);
         }
+        controller.start(vendor_count, ticketReleaseRate, customer_count, customerRetrievalRate);
 
         //Wait for an input to terminate the system
         Scanner getInput = new Scanner(System.in);
         getInput.nextLine(); // Wait for Enter input
-        vendorThreads = true;// Set it to true to stop the threads. Threads
-        customerThreads = true;
+        ShutdownReport report = controller.stop(STOP_TIMEOUT_MILLIS);
+        pricingEngine.stop();
 
+        System.out.println(report);
+        System.out.println("Final ticket price: " + String.format("%.2f", pricingEngine.getCurrentPrice()));
         System.out.println("All threads stopped. Exiting program.");
-        System.exit(0);
 
     }
 }
\ No newline at end of file
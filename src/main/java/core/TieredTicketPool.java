@@ -0,0 +1,352 @@
+package core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The tickets of an event split into price categories, such as VIP, standard and balcony.
+ * Each tier is a separate {@link TicketPool} with its own capacity, release rate, vendors and monitor, so heavy
+ * demand on one tier never holds up sales in another.
+ *
+ * <p>A purchase names a preferred tier and may fall back to the tiers next to it, in the order the tiers were
+ * added. The whole quantity always comes from one tier so a group sits together. Tiers are tried one after another
+ * and only one tier's monitor is ever held at a time, and tiers whose availability snapshot shows too few tickets
+ * are skipped without being locked at all.
+ *
+ * <p>Tiers run in bounded-producer mode with both watermarks at the tier's capacity, so a tier that reaches its
+ * capacity parks its own vendors instead of setting {@link TicketingSystem#vendorThreads}. Vendors of bounded pools
+ * ignore that flag, so a plain pool selling out elsewhere does not stop any tier either. Vendor threads are named
+ * after their tier, such as "VIP Vendor 1".
+ *
+ * <p>Every tier is given its own fixed range of ticket numbers, following on from the tier added before it, so a
+ * ticket number identifies one ticket across the whole event. One record store, gate validator or resale market
+ * can therefore serve every tier, and a tier's capacity cannot be raised into the next tier's range.
+ */
+public class TieredTicketPool {
+    private static final Logger logger = LogManager.getLogger(TieredTicketPool.class);
+    private final List<Tier> tiers = new CopyOnWriteArrayList<>();
+    private final LongAdder fallbackPurchases = new LongAdder();
+    private int nextFirstTicketNumber = 1; // Start of the number range of the next tier added
+
+    /**
+     * A single price category with its own pool and vendors.
+     */
+    public static final class Tier {
+        private final String name;
+        private final int index;
+        private final TicketPool ticketPool;
+        private final int ticketReleaseRate;
+        private final LifecycleController controller;
+
+        /**
+         * Creates a tier.
+         *
+         * @param name              the tier name
+         * @param index             the position of the tier, adjacent tiers differ by one
+         * @param ticketPool        the pool holding the tier's tickets
+         * @param ticketReleaseRate the tickets each of the tier's vendors releases per second
+         */
+        private Tier(String name, int index, TicketPool ticketPool, int ticketReleaseRate) {
+            this.name = name;
+            this.index = index;
+            this.ticketPool = ticketPool;
+            this.ticketReleaseRate = ticketReleaseRate;
+            this.controller = new LifecycleController(ticketPool, name + " ");
+        }
+
+        /**
+         * Gets the tier name.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the pool holding the tier's tickets, numbered within the tier's range.
+         *
+         * @return the tier's pool
+         */
+        public TicketPool getTicketPool() {
+            return ticketPool;
+        }
+
+        /**
+         * Gets the number of tickets each of the tier's vendors releases per second.
+         *
+         * @return the release rate
+         */
+        public int getTicketReleaseRate() {
+            return ticketReleaseRate;
+        }
+
+        /**
+         * Gets the controller that owns the tier's vendor threads.
+         *
+         * @return the tier's lifecycle controller
+         */
+        public LifecycleController getController() {
+            return controller;
+        }
+    }
+
+    /**
+     * The tickets bought by a tiered purchase.
+     */
+    public static final class Allocation {
+        private final Tier tier;
+        private final int[] ticketNumbers;
+        private final boolean fallback;
+
+        /**
+         * Creates an allocation.
+         *
+         * @param tier          the tier the tickets came from
+         * @param ticketNumbers the ticket numbers bought
+         * @param fallback      true if the tickets came from a tier other than the preferred one
+         */
+        private Allocation(Tier tier, int[] ticketNumbers, boolean fallback) {
+            this.tier = tier;
+            this.ticketNumbers = ticketNumbers;
+            this.fallback = fallback;
+        }
+
+        /**
+         * Gets the tier the tickets came from.
+         *
+         * @return the tier
+         */
+        public Tier getTier() {
+            return tier;
+        }
+
+        /**
+         * Gets the ticket numbers bought, which are unique across all tiers.
+         *
+         * @return the ticket numbers
+         */
+        public int[] getTicketNumbers() {
+            return ticketNumbers;
+        }
+
+        /**
+         * Checks whether the tickets came from a tier other than the preferred one.
+         *
+         * @return true for a fallback purchase
+         */
+        public boolean isFallback() {
+            return fallback;
+        }
+    }
+
+    /**
+     * Creates an event with no tiers.
+     */
+    public TieredTicketPool() {}
+
+    /**
+     * Adds a tier after the tiers already added, making it adjacent to the last one.
+     * Its ticket numbers follow on from the last tier's range, which is maxTicketCapacity numbers long.
+     *
+     * @param name              the tier name, for example "VIP"
+     * @param totalTickets      the tickets in the tier when sales open
+     * @param maxTicketCapacity the maximum number of tickets in the tier
+     * @param ticketReleaseRate the tickets each of the tier's vendors releases per second
+     * @return the new tier
+     * @throws IllegalArgumentException if a tier with the same name exists, or the tiers would run out of ticket numbers
+     */
+    public synchronized Tier addTier(String name, int totalTickets, int maxTicketCapacity, int ticketReleaseRate) {
+        if (findTier(name) != null) {
+            throw new IllegalArgumentException("Tier " + name + " already exists");
+        }
+        TicketPool ticketPool = new TicketPool(totalTickets, maxTicketCapacity, nextFirstTicketNumber);
+        nextFirstTicketNumber += maxTicketCapacity;
+        ticketPool.setWatermarks(maxTicketCapacity, maxTicketCapacity); // Park this tier's vendors at capacity
+        Tier tier = new Tier(name, tiers.size(), ticketPool, ticketReleaseRate);
+        tiers.add(tier);
+        return tier;
+    }
+
+    /**
+     * Gets a tier by name.
+     *
+     * @param name the tier name
+     * @return the tier
+     * @throws IllegalArgumentException if there is no such tier
+     */
+    public Tier getTier(String name) {
+        Tier tier = findTier(name);
+        if (tier == null) {
+            throw new IllegalArgumentException("No tier named " + name);
+        }
+        return tier;
+    }
+
+    /**
+     * Gets the tiers in the order they were added.
+     *
+     * @return the tiers
+     */
+    public List<Tier> getTiers() {
+        return Collections.unmodifiableList(tiers);
+    }
+
+    /**
+     * Starts vendor threads for every tier, each releasing tickets at its tier's rate.
+     *
+     * @param vendorsPerTier the number of vendor threads per tier
+     */
+    public void start(int vendorsPerTier) {
+        for (Tier tier : tiers) {
+            tier.controller.start(vendorsPerTier, tier.ticketReleaseRate, 0, 0);
+        }
+        logger.info("Started " + vendorsPerTier + " vendors in each of " + tiers.size() + " tiers");
+    }
+
+    /**
+     * Stops the vendor threads of every tier and closes their pools.
+     *
+     * @param timeoutMillis the maximum time to wait for each tier's threads to stop
+     */
+    public void stop(long timeoutMillis) {
+        for (Tier tier : tiers) {
+            tier.controller.stop(timeoutMillis);
+        }
+    }
+
+    /**
+     * Tries once to buy tickets from the preferred tier, then from the tiers around it, without waiting.
+     * Tiers are tried by distance from the preferred tier, the one added earlier first at each distance.
+     *
+     * @param preferredTier the name of the tier the customer wants
+     * @param quantity      the number of tickets, all from the same tier
+     * @param maxDistance   how many tiers away from the preferred one to look, 0 for the preferred tier only
+     * @return the tickets bought, or null if no tier in range could supply them all
+     */
+    public Allocation tryPurchase(String preferredTier, int quantity, int maxDistance) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Tier preferred = getTier(preferredTier);
+        int[] bought = trySell(preferred, quantity);
+        if (bought != null) {
+            return new Allocation(preferred, bought, false);
+        }
+        for (int distance = 1; distance <= maxDistance; distance++) {
+            int below = preferred.index - distance;
+            int above = preferred.index + distance;
+            if (below < 0 && above >= tiers.size()) {
+                break;
+            }
+            for (int index : new int[]{below, above}) {
+                if (index >= 0 && index < tiers.size()) {
+                    Tier tier = tiers.get(index);
+                    bought = trySell(tier, quantity);
+                    if (bought != null) {
+                        fallbackPurchases.increment();
+                        logger.info(Thread.currentThread().getName() + " bought " + quantity + " " + tier.name +
+                                " tickets instead of " + preferred.name);
+                        return new Allocation(tier, bought, true);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Buys tickets from the preferred tier or the tiers around it, retrying with a short back-off until it
+     * succeeds or the timeout expires.
+     *
+     * @param preferredTier the name of the tier the customer wants
+     * @param quantity      the number of tickets, all from the same tier
+     * @param maxDistance   how many tiers away from the preferred one to look, 0 for the preferred tier only
+     * @param timeoutMillis the maximum time to keep trying
+     * @return the tickets bought, or null if no tier in range could supply them in time
+     * @throws InterruptedException if the thread is interrupted while backing off
+     */
+    public Allocation purchase(String preferredTier, int quantity, int maxDistance, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long backoffNanos = TimeUnit.MICROSECONDS.toNanos(50);
+        while (true) {
+            Allocation allocation = tryPurchase(preferredTier, quantity, maxDistance);
+            if (allocation != null) {
+                return allocation;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            LockSupport.parkNanos(Math.min(backoffNanos, remaining));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            backoffNanos = Math.min(backoffNanos * 2, TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    /**
+     * Gets the number of tickets available across all tiers, read from their snapshots without locking.
+     *
+     * @return the tickets available
+     */
+    public int getAvailableTickets() {
+        int available = 0;
+        for (Tier tier : tiers) {
+            available += tier.ticketPool.getAvailabilitySnapshot().getAvailableTickets();
+        }
+        return available;
+    }
+
+    /**
+     * Gets the number of purchases filled from a tier other than the preferred one.
+     *
+     * @return the fallback purchase count
+     */
+    public long getFallbackPurchases() {
+        return fallbackPurchases.sum();
+    }
+
+    /**
+     * Sells tickets from a single tier if it can supply them all, holding only that tier's monitor.
+     *
+     * @param tier     the tier
+     * @param quantity the number of tickets
+     * @return the ticket numbers sold, or null if the tier has too few tickets or is closed
+     */
+    private int[] trySell(Tier tier, int quantity) {
+        TicketPool pool = tier.ticketPool;
+        AvailabilitySnapshot snapshot = pool.getAvailabilitySnapshot();
+        // Skip tiers that are closed or short of tickets without touching their monitor
+        if (snapshot.isClosed() || (snapshot.getAvailableTickets() < quantity && !pool.hasPendingRefunds())) {
+            return null;
+        }
+        synchronized (pool) {
+            return pool.canSell(quantity) ? pool.sellReserved(quantity) : null;
+        }
+    }
+
+    /**
+     * Finds a tier by name.
+     *
+     * @param name the tier name
+     * @return the tier, or null if there is none
+     */
+    private Tier findTier(String name) {
+        for (Tier tier : tiers) {
+            if (tier.name.equals(name)) {
+                return tier;
+            }
+        }
+        return null;
+    }
+}
@@ -6,6 +6,18 @@
  * <ul>
  *   <li>{@link core.TicketingSystem} - The main class that starts the event ticketing simulation. It initializes configuration, creates and starts vendor and customer threads, and handles stopping threads based on user input.</li>
  *   <li>{@link core.TicketPool} - A class responsible for managing the synchronized pool of tickets. It ensures thread safety while adding and removing tickets, maintaining counters for tickets sold, and tracking the next available ticket number. This class is crucial for the overall operation of the ticketing system, ensuring proper ticket allocation and preventing issues like exceeding ticket capacity.</li>
+ *   <li>{@link core.PricingEngine} - Computes each event's ticket price from its recent sales velocity on a background thread and publishes it as a {@link core.PriceQuote}.</li>
+ *   <li>{@link core.SalesWindow} - A striped sliding-window counter of recent sales, updated from the sale path without locking.</li>
+ *   <li>{@link core.PriceQuote} - An immutable snapshot of an event's current price and the sales velocity behind it.</li>
+ *   <li>{@link core.LifecycleController} - Owns the vendor and customer threads of a pool and supports start, pause, resume, drain and stop with a bounded shutdown time.</li>
+ *   <li>{@link core.ShutdownReport} - Summarises the work that was in flight when a controller stopped.</li>
+ *   <li>{@link core.BundlePurchase} - Buys tickets from several pools all-or-nothing, locking the pools in a fixed order so overlapping bundles cannot deadlock.</li>
+ *   <li>{@link core.PoolListener} - The interface through which user interfaces observe tickets being added and sold, keeping the core free of JavaFX.</li>
+ *   <li>{@link core.HeadlessServer} - A non-interactive entry point that runs the engine from the saved configuration without loading JavaFX.</li>
+ *   <li>{@link core.AvailabilitySnapshot} - An immutable snapshot of a pool's available, sold and issued counts, published on every change so availability can be read without locking.</li>
+ *   <li>{@link core.PurchaseRateLimiter} - Per-client token bucket rate limiting in front of purchases, stored in striped primitive tables with lazy refill and idle eviction.</li>
+ *   <li>{@link core.EventCatalog} - Loads an event catalog and builds the ticket pools, price tiers and pricing engines of every event in parallel.</li>
+ *   <li>{@link core.TieredTicketPool} - Splits an event into price tiers, each its own pool with its own capacity, release rate and lock, and buys from the preferred tier or falls back to adjacent ones while holding one lock at a time.</li>
  * </ul>
  *
  * @author Raveen Gamachchige
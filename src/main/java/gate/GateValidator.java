@@ -0,0 +1,167 @@
+package gate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Validates tickets scanned at the venue gates on event day.
+ * The validator keeps two {@link TicketBitmap}s, the ticket numbers that have been sold and those that have
+ * already been scanned. A ticket is admitted only if it is sold and has not been scanned before, so a copied
+ * ticket is rejected at every gate after the first. Any number of gate threads may scan at once and
+ * none of them takes a lock.
+ *
+ * <p>The pool marks tickets sold as they are bought and revokes them when they are refunded, see
+ * {@link core.TicketPool#setGateValidator(GateValidator)}. A scan sets the scanned bit before checking the sold
+ * bit, and a refund clears the sold bit before checking the scanned bit, each undoing its own change if it sees
+ * the other's. A ticket can therefore never be both admitted and refunded, even when the two race.
+ * The resale market refuses to list scanned tickets, see {@link resale.ResaleMarket#setGateValidator(GateValidator)}.
+ */
+public class GateValidator {
+    private static final Logger logger = LogManager.getLogger(GateValidator.class);
+
+    private final TicketBitmap soldTickets = new TicketBitmap();
+    private final TicketBitmap scannedTickets = new TicketBitmap();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * The outcome of a scan.
+     */
+    public enum Result {
+        /** The ticket is valid and this is its first scan, the holder may enter. */
+        ADMITTED,
+        /** The ticket has been scanned before. */
+        ALREADY_SCANNED,
+        /** The ticket number was never sold, or has been refunded. */
+        NOT_SOLD
+    }
+
+    /**
+     * Records a ticket as sold, so it can be scanned.
+     *
+     * @param ticketNumber the ticket number
+     */
+    public void markSold(int ticketNumber) {
+        soldTickets.add(ticketNumber);
+    }
+
+    /**
+     * Withdraws a sold ticket, such as when it is refunded, unless it has already been scanned.
+     *
+     * @param ticketNumber the ticket number
+     * @return true if the ticket was sold and is now withdrawn, false if it was not sold or its holder has entered
+     */
+    public boolean revoke(int ticketNumber) {
+        if (!soldTickets.remove(ticketNumber)) {
+            return false;
+        }
+        if (scannedTickets.contains(ticketNumber)) {
+            soldTickets.add(ticketNumber); // The holder is already inside, keep the ticket valid
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Validates a scanned ticket and marks it as used.
+     *
+     * @param ticketNumber the ticket number read at the gate
+     * @return whether the holder may enter
+     */
+    public Result validate(int ticketNumber) {
+        if (ticketNumber < 0) {
+            rejected.increment();
+            return Result.NOT_SOLD;
+        }
+        if (!scannedTickets.add(ticketNumber)) {
+            duplicates.increment();
+            logger.warn("Ticket " + ticketNumber + " rejected, already scanned");
+            return Result.ALREADY_SCANNED;
+        }
+        if (!soldTickets.contains(ticketNumber)) {
+            scannedTickets.remove(ticketNumber); // Not a real ticket, so do not count it as used
+            rejected.increment();
+            logger.warn("Ticket " + ticketNumber + " rejected, not sold");
+            return Result.NOT_SOLD;
+        }
+        admitted.increment();
+        return Result.ADMITTED;
+    }
+
+    /**
+     * Checks whether a ticket has been scanned, without marking it.
+     *
+     * @param ticketNumber the ticket number
+     * @return true if the ticket has been admitted
+     */
+    public boolean isScanned(int ticketNumber) {
+        return scannedTickets.contains(ticketNumber);
+    }
+
+    /**
+     * Checks whether a ticket is sold and not refunded, without marking it.
+     *
+     * @param ticketNumber the ticket number
+     * @return true if the ticket is valid for entry, whether or not it has been scanned
+     */
+    public boolean isSold(int ticketNumber) {
+        return soldTickets.contains(ticketNumber);
+    }
+
+    /**
+     * Gets the number of tickets currently valid for entry.
+     *
+     * @return the sold ticket count
+     */
+    public int getSoldCount() {
+        return soldTickets.size();
+    }
+
+    /**
+     * Gets the number of holders that have entered.
+     *
+     * @return the scanned ticket count
+     */
+    public int getScannedCount() {
+        return scannedTickets.size();
+    }
+
+    /**
+     * Gets the number of scans admitted.
+     *
+     * @return the admitted count
+     */
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    /**
+     * Gets the number of scans rejected because the ticket had already been scanned.
+     *
+     * @return the duplicate count
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /**
+     * Gets the number of scans rejected because the ticket was not sold.
+     *
+     * @return the rejected count
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Estimates the memory used by both bitmaps' containers.
+     *
+     * @return the approximate size in bytes
+     */
+    public long getContainerBytes() {
+        return soldTickets.getContainerBytes() + scannedTickets.getContainerBytes();
+    }
+}
@@ -0,0 +1,371 @@
+package gate;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of ticket numbers that many threads can read and update at once without locks.
+ *
+ * <p>The layout follows roaring bitmaps. Ticket numbers are split into a high 16-bit key and a low 16-bit value,
+ * and each key that holds any tickets gets a container for its 65536 values. A container starts as a sorted array
+ * of values, two bytes per ticket, and is replaced by an 8 KB bitmap once it holds more than 4096 tickets, the point
+ * at which the bitmap becomes smaller. A sparse event therefore costs a few bytes per ticket, and a dense one about
+ * one bit per ticket.
+ *
+ * <p>Array containers are changed in place under their own lock, so an update never copies the array and
+ * writers to the same block queue up instead of retrying. Lookups search the array without the lock and only
+ * take it if a writer changed the array while they searched. Bitmap containers are updated one word at a time
+ * with compare-and-set. Bitmaps never turn back into arrays, so every operation on a single ticket is atomic and
+ * {@link #add(int)} can be used as a test-and-set.
+ *
+ * <p>Container references are kept in pages of 256 keys that are allocated the first time they are needed,
+ * so an empty bitmap costs well under a kilobyte and one bitmap per ticket pool stays cheap.
+ */
+public class TicketBitmap {
+    private static final int KEY_COUNT = 1 << 15;   // High 16 bits of a non-negative int
+    private static final int ARRAY_LIMIT = 4096;    // Largest array container, 8 KB like a bitmap container
+    private static final int BITMAP_WORDS = 1024;   // 65536 bits
+    private static final int PAGE_BITS = 8;         // 256 container references per page
+
+    // Pages of containers, each container an ArrayContainer or an AtomicLongArray
+    private final AtomicReferenceArray<AtomicReferenceArray<Object>> pages = new AtomicReferenceArray<>(KEY_COUNT >>> PAGE_BITS);
+    private final AtomicInteger cardinality = new AtomicInteger();
+
+    /**
+     * A sorted array of the low 16 bits of the tickets under one key, changed in place while holding its lock.
+     */
+    private static final class ArrayContainer {
+        private final StampedLock lock = new StampedLock();
+        private char[] values;
+        private int size;
+        private boolean replaced;   // Turned into a bitmap container, which now takes every update
+
+        /**
+         * Creates a container holding one value.
+         *
+         * @param low the value
+         */
+        private ArrayContainer(char low) {
+            values = new char[]{low, 0, 0, 0};
+            size = 1;
+        }
+
+        /**
+         * Checks whether the container holds a value, searching without the lock unless a writer gets in the way.
+         *
+         * @param low the value
+         * @return true if the value is in the container
+         */
+        private boolean contains(char low) {
+            long stamp = lock.tryOptimisticRead();
+            char[] current = values;
+            int length = Math.min(size, current.length);
+            boolean found = Arrays.binarySearch(current, 0, length, low) >= 0;
+            if (lock.validate(stamp)) {
+                return found;
+            }
+            stamp = lock.readLock();
+            try {
+                return Arrays.binarySearch(values, 0, size, low) >= 0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Copies the values out of the container.
+         *
+         * @return the values in ascending order
+         */
+        private char[] snapshot() {
+            long stamp = lock.readLock();
+            try {
+                return Arrays.copyOf(values, size);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Adds a ticket number if it is not already in the set.
+     *
+     * @param ticketNumber the ticket number
+     * @return true if the ticket was added, false if it was already in the set
+     * @throws IllegalArgumentException if the ticket number is negative
+     */
+    public boolean add(int ticketNumber) {
+        if (ticketNumber < 0) {
+            throw new IllegalArgumentException("Ticket number " + ticketNumber + " is negative");
+        }
+        int key = ticketNumber >>> 16;
+        char low = (char) ticketNumber;
+        AtomicReferenceArray<Object> containers = page(key, true);
+        int slot = key & ((1 << PAGE_BITS) - 1);
+        while (true) {
+            Object container = containers.get(slot);
+            if (container == null) {
+                if (containers.compareAndSet(slot, null, new ArrayContainer(low))) {
+                    cardinality.incrementAndGet();
+                    return true;
+                }
+                continue;
+            }
+            if (container instanceof AtomicLongArray) {
+                if (!setBit((AtomicLongArray) container, low)) {
+                    return false;
+                }
+                cardinality.incrementAndGet();
+                return true;
+            }
+            ArrayContainer array = (ArrayContainer) container;
+            long stamp = array.lock.writeLock();
+            try {
+                if (array.replaced) {
+                    continue; // Read the bitmap that replaced it
+                }
+                int index = Arrays.binarySearch(array.values, 0, array.size, low);
+                if (index >= 0) {
+                    return false;
+                }
+                if (array.size == ARRAY_LIMIT) {
+                    // Only the lock holder replaces the container, so the slot still holds this array
+                    containers.set(slot, toBitmap(array.values, low));
+                    array.replaced = true;
+                } else {
+                    insert(array, -index - 1, low);
+                }
+                cardinality.incrementAndGet();
+                return true;
+            } finally {
+                array.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Removes a ticket number from the set.
+     *
+     * @param ticketNumber the ticket number
+     * @return true if the ticket was removed, false if it was not in the set
+     */
+    public boolean remove(int ticketNumber) {
+        if (ticketNumber < 0) {
+            return false;
+        }
+        int key = ticketNumber >>> 16;
+        char low = (char) ticketNumber;
+        AtomicReferenceArray<Object> containers = page(key, false);
+        if (containers == null) {
+            return false;
+        }
+        int slot = key & ((1 << PAGE_BITS) - 1);
+        while (true) {
+            Object container = containers.get(slot);
+            if (container == null) {
+                return false;
+            }
+            if (container instanceof AtomicLongArray) {
+                if (!clearBit((AtomicLongArray) container, low)) {
+                    return false;
+                }
+                cardinality.decrementAndGet();
+                return true;
+            }
+            ArrayContainer array = (ArrayContainer) container;
+            long stamp = array.lock.writeLock();
+            try {
+                if (array.replaced) {
+                    continue;
+                }
+                int index = Arrays.binarySearch(array.values, 0, array.size, low);
+                if (index < 0) {
+                    return false;
+                }
+                System.arraycopy(array.values, index + 1, array.values, index, array.size - index - 1);
+                array.size--;
+                cardinality.decrementAndGet();
+                return true;
+            } finally {
+                array.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a ticket number is in the set.
+     *
+     * @param ticketNumber the ticket number
+     * @return true if the ticket is in the set
+     */
+    public boolean contains(int ticketNumber) {
+        if (ticketNumber < 0) {
+            return false;
+        }
+        int key = ticketNumber >>> 16;
+        AtomicReferenceArray<Object> containers = page(key, false);
+        if (containers == null) {
+            return false;
+        }
+        Object container = containers.get(key & ((1 << PAGE_BITS) - 1));
+        char low = (char) ticketNumber;
+        if (container instanceof AtomicLongArray) {
+            return (((AtomicLongArray) container).get(low >>> 6) & (1L << low)) != 0;
+        }
+        return container != null && ((ArrayContainer) container).contains(low);
+    }
+
+    /**
+     * Gets the number of tickets in the set.
+     *
+     * @return the cardinality
+     */
+    public int size() {
+        return cardinality.get();
+    }
+
+    /**
+     * Passes every ticket number in the set to an action, in ascending order.
+     * Tickets added or removed while this runs may or may not be seen.
+     *
+     * @param action the action to run for each ticket number
+     */
+    public void forEach(IntConsumer action) {
+        for (int pageIndex = 0; pageIndex < pages.length(); pageIndex++) {
+            AtomicReferenceArray<Object> containers = pages.get(pageIndex);
+            for (int slot = 0; containers != null && slot < containers.length(); slot++) {
+                Object container = containers.get(slot);
+                int high = ((pageIndex << PAGE_BITS) | slot) << 16;
+                if (container instanceof AtomicLongArray) {
+                    AtomicLongArray bitmap = (AtomicLongArray) container;
+                    for (int word = 0; word < BITMAP_WORDS; word++) {
+                        long bits = bitmap.get(word);
+                        while (bits != 0) {
+                            action.accept(high | (word << 6) | Long.numberOfTrailingZeros(bits));
+                            bits &= bits - 1;
+                        }
+                    }
+                } else if (container != null) {
+                    for (char value : ((ArrayContainer) container).snapshot()) {
+                        action.accept(high | value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the memory used by the containers, not counting the pages of container references.
+     *
+     * @return the approximate size of the containers in bytes
+     */
+    public long getContainerBytes() {
+        long bytes = 0;
+        for (int pageIndex = 0; pageIndex < pages.length(); pageIndex++) {
+            AtomicReferenceArray<Object> containers = pages.get(pageIndex);
+            for (int slot = 0; containers != null && slot < containers.length(); slot++) {
+                Object container = containers.get(slot);
+                if (container instanceof AtomicLongArray) {
+                    bytes += BITMAP_WORDS * Long.BYTES;
+                } else if (container != null) {
+                    bytes += ((ArrayContainer) container).values.length * Character.BYTES;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the page holding a key's container, allocating it if asked.
+     *
+     * @param key    the high 16 bits of a ticket number
+     * @param create true to allocate the page if it does not exist yet
+     * @return the page, or null if it does not exist and create is false
+     */
+    private AtomicReferenceArray<Object> page(int key, boolean create) {
+        int pageIndex = key >>> PAGE_BITS;
+        AtomicReferenceArray<Object> page = pages.get(pageIndex);
+        if (page == null && create) {
+            pages.compareAndSet(pageIndex, null, new AtomicReferenceArray<>(1 << PAGE_BITS));
+            page = pages.get(pageIndex);
+        }
+        return page;
+    }
+
+    /**
+     * Sets a bit of a bitmap container.
+     *
+     * @param bitmap the container
+     * @param low    the low 16 bits of the ticket number
+     * @return true if the bit was clear and is now set
+     */
+    private static boolean setBit(AtomicLongArray bitmap, char low) {
+        int word = low >>> 6;
+        long mask = 1L << low;
+        long current;
+        do {
+            current = bitmap.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bitmap.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    /**
+     * Clears a bit of a bitmap container.
+     *
+     * @param bitmap the container
+     * @param low    the low 16 bits of the ticket number
+     * @return true if the bit was set and is now clear
+     */
+    private static boolean clearBit(AtomicLongArray bitmap, char low) {
+        int word = low >>> 6;
+        long mask = 1L << low;
+        long current;
+        do {
+            current = bitmap.get(word);
+            if ((current & mask) == 0) {
+                return false;
+            }
+        } while (!bitmap.compareAndSet(word, current, current & ~mask));
+        return true;
+    }
+
+    /**
+     * Inserts a value into an array container, growing its array when it is full.
+     * Must be called while holding the container's write lock.
+     *
+     * @param array the container
+     * @param index the position to insert at
+     * @param low   the value to insert
+     */
+    private static void insert(ArrayContainer array, int index, char low) {
+        if (array.size == array.values.length) {
+            array.values = Arrays.copyOf(array.values, Math.min(ARRAY_LIMIT, array.values.length * 2));
+        }
+        System.arraycopy(array.values, index, array.values, index + 1, array.size - index);
+        array.values[index] = low;
+        array.size++;
+    }
+
+    /**
+     * Converts a full array container into a bitmap container holding one more value.
+     *
+     * @param values the current values
+     * @param low    the value being added
+     * @return the bitmap container
+     */
+    private static AtomicLongArray toBitmap(char[] values, char low) {
+        long[] words = new long[BITMAP_WORDS];
+        for (char value : values) {
+            words[value >>> 6] |= 1L << value;
+        }
+        words[low >>> 6] |= 1L << low;
+        return new AtomicLongArray(words);
+    }
+}
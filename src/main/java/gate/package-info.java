@@ -0,0 +1,15 @@
+/**
+ * This package contains venue gate validation for the Real-Time Event Ticketing System.
+ * On event day, tickets scanned at the gates are checked against compact sets of sold and already-scanned
+ * ticket numbers, so each ticket admits its holder once.
+ *
+ * <p>Classes in this package:
+ * <ul>
+ *   <li>{@link gate.TicketBitmap} - A lock-free, roaring-style compressed bitmap of ticket numbers, using sorted arrays for sparse ranges and bitmaps for dense ones.</li>
+ *   <li>{@link gate.GateValidator} - Admits a scanned ticket only if it is sold and not yet scanned, with an atomic test-and-set that rejects duplicates across gate threads.</li>
+ * </ul>
+ *
+ * @author Raveen Gamachchige
+ * @version 1.0
+ */
+package gate;
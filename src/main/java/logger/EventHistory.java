@@ -0,0 +1,281 @@
+package logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded in-memory history of ticket events, searchable by ticket number and agent.
+ * Events are kept in parallel primitive arrays used as a ring buffer instead of formatted log strings,
+ * and every event is linked to the previous event for the same ticket and the same agent,
+ * so a lookup only visits the matching events. When the history is full the oldest events are overwritten.
+ */
+public class EventHistory {
+    /**
+     * The kinds of event kept in the history.
+     */
+    public enum EventType {
+        /** A vendor added the ticket to the pool. */
+        ADDED,
+        /** A customer bought the ticket. */
+        SOLD,
+        /** The ticket was refunded and returned to the pool. */
+        REFUNDED
+    }
+
+    private static final long NONE = -1;
+    private static final EventType[] TYPES = EventType.values();
+
+    private final int capacity;
+    private final int mask;
+    private final long[] timestamps;     // Event time in epoch milliseconds
+    private final int[] ticketNumbers;
+    private final int[] agentIds;
+    private final byte[] types;
+    private final long[] previousForTicket; // Sequence of the previous event for the same ticket
+    private final long[] previousForAgent;  // Sequence of the previous event by the same agent
+    private final LatestIndex ticketIndex;
+    private final LatestIndex agentIndex;
+    private final Map<String, Integer> agentIdsByName = new HashMap<>();
+    private final List<String> agentNames = new ArrayList<>();
+    private long nextSequence;
+
+    /**
+     * Creates a history that keeps the most recent events.
+     *
+     * @param capacity the number of events to keep, rounded up to a power of two
+     */
+    public EventHistory(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int rounded = 1;
+        while (rounded < capacity) {
+            rounded <<= 1;
+        }
+        this.capacity = rounded;
+        this.mask = rounded - 1;
+        timestamps = new long[this.capacity];
+        ticketNumbers = new int[this.capacity];
+        agentIds = new int[this.capacity];
+        types = new byte[this.capacity];
+        previousForTicket = new long[this.capacity];
+        previousForAgent = new long[this.capacity];
+        ticketIndex = new LatestIndex();
+        agentIndex = new LatestIndex();
+    }
+
+    /**
+     * Gets the ID used for an agent, registering the agent if it has not been seen before.
+     *
+     * @param agentName the agent's thread name, for example "Customer 1"
+     * @return the agent ID
+     */
+    public synchronized int agentId(String agentName) {
+        Integer id = agentIdsByName.get(agentName);
+        if (id == null) {
+            id = agentNames.size();
+            agentNames.add(agentName);
+            agentIdsByName.put(agentName, id);
+        }
+        return id;
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param type         the kind of event
+     * @param ticketNumber the ticket the event applies to
+     * @param agentId      the ID of the agent, from {@link #agentId(String)}
+     * @param timestamp    the event time in epoch milliseconds
+     */
+    public synchronized void record(EventType type, int ticketNumber, int agentId, long timestamp) {
+        long sequence = nextSequence++;
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = timestamp;
+        ticketNumbers[slot] = ticketNumber;
+        agentIds[slot] = agentId;
+        types[slot] = (byte) type.ordinal();
+        previousForTicket[slot] = ticketIndex.put(ticketNumber, sequence, this);
+        previousForAgent[slot] = agentIndex.put(agentId, sequence, this);
+    }
+
+    /**
+     * Finds the events for a ticket, most recent first.
+     *
+     * @param ticketNumber the ticket number
+     * @return the matching events still held in the history
+     */
+    public synchronized List<HistoryEvent> findByTicket(int ticketNumber) {
+        List<HistoryEvent> events = new ArrayList<>();
+        long sequence = ticketIndex.get(ticketNumber);
+        while (isLive(sequence)) {
+            int slot = (int) (sequence & mask);
+            events.add(eventAt(slot));
+            sequence = previousForTicket[slot];
+        }
+        return events;
+    }
+
+    /**
+     * Finds the events of an agent, most recent first.
+     *
+     * @param agentName the agent's thread name
+     * @param limit     the maximum number of events to return
+     * @return the matching events still held in the history
+     */
+    public synchronized List<HistoryEvent> findByAgent(String agentName, int limit) {
+        List<HistoryEvent> events = new ArrayList<>();
+        Integer agentId = agentIdsByName.get(agentName);
+        if (agentId == null) {
+            return events;
+        }
+        long sequence = agentIndex.get(agentId);
+        while (isLive(sequence) && events.size() < limit) {
+            int slot = (int) (sequence & mask);
+            events.add(eventAt(slot));
+            sequence = previousForAgent[slot];
+        }
+        return events;
+    }
+
+    /**
+     * Gets the number of events currently held.
+     *
+     * @return the event count, at most the capacity
+     */
+    public synchronized int size() {
+        return (int) Math.min(nextSequence, capacity);
+    }
+
+    /**
+     * Checks whether an event is still held, i.e. has not been overwritten by a newer one.
+     *
+     * @param sequence the event's sequence number
+     * @return true if the event is still in the history
+     */
+    private boolean isLive(long sequence) {
+        return sequence != NONE && sequence >= nextSequence - capacity;
+    }
+
+    /**
+     * Builds the event object for a slot.
+     *
+     * @param slot the slot index
+     * @return the event held in the slot
+     */
+    private HistoryEvent eventAt(int slot) {
+        return new HistoryEvent(TYPES[types[slot]], ticketNumbers[slot], agentNames.get(agentIds[slot]), timestamps[slot]);
+    }
+
+    /**
+     * An open-addressing map from an int key to the sequence of its latest event.
+     * Keys whose latest event has been overwritten are dropped whenever the table grows,
+     * so the table stays proportional to the number of events held.
+     */
+    private static final class LatestIndex {
+        private int[] keys = new int[16];
+        private long[] latest = new long[16];
+        private int size;
+
+        /**
+         * Creates an empty index.
+         */
+        LatestIndex() {
+            Arrays.fill(latest, NONE);
+        }
+
+        /**
+         * Gets the latest sequence for a key.
+         *
+         * @param key the key
+         * @return the sequence, or NONE if the key is not indexed
+         */
+        long get(int key) {
+            int tableMask = keys.length - 1;
+            for (int i = mix(key) & tableMask; latest[i] != NONE; i = (i + 1) & tableMask) {
+                if (keys[i] == key) {
+                    return latest[i];
+                }
+            }
+            return NONE;
+        }
+
+        /**
+         * Sets the latest sequence for a key.
+         *
+         * @param key      the key
+         * @param sequence the new latest sequence
+         * @param history  the history, used to drop stale keys when the table grows
+         * @return the previous latest sequence for the key, or NONE
+         */
+        long put(int key, long sequence, EventHistory history) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(history);
+            }
+            int tableMask = keys.length - 1;
+            int i = mix(key) & tableMask;
+            while (latest[i] != NONE) {
+                if (keys[i] == key) {
+                    long previous = latest[i];
+                    latest[i] = sequence;
+                    return previous;
+                }
+                i = (i + 1) & tableMask;
+            }
+            keys[i] = key;
+            latest[i] = sequence;
+            size++;
+            return NONE;
+        }
+
+        /**
+         * Rebuilds the table without stale keys, doubling it if it is still more than a quarter full.
+         *
+         * @param history the history used to check which events are still held
+         */
+        private void rehash(EventHistory history) {
+            int[] oldKeys = keys;
+            long[] oldLatest = latest;
+            int live = 0;
+            for (long sequence : oldLatest) {
+                if (history.isLive(sequence)) {
+                    live++;
+                }
+            }
+            int length = oldKeys.length;
+            while ((live + 1) * 4 > length) {
+                length <<= 1;
+            }
+            keys = new int[length];
+            latest = new long[length];
+            Arrays.fill(latest, NONE);
+            size = 0;
+            int tableMask = length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (history.isLive(oldLatest[j])) {
+                    int i = mix(oldKeys[j]) & tableMask;
+                    while (latest[i] != NONE) {
+                        i = (i + 1) & tableMask;
+                    }
+                    keys[i] = oldKeys[j];
+                    latest[i] = oldLatest[j];
+                    size++;
+                }
+            }
+        }
+
+        /**
+         * Spreads the bits of a key so sequential ticket numbers do not cluster.
+         *
+         * @param key the key
+         * @return the mixed hash
+         */
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package logger;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A single event returned by an {@link EventHistory} query.
+ * Events are only materialised as objects when they are queried.
+ */
+public final class HistoryEvent {
+    private static final DateTimeFormatter dateTime = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private final EventHistory.EventType type;
+    private final int ticketNumber;
+    private final String agentName;
+    private final long timestamp;
+
+    /**
+     * Creates a history event.
+     *
+     * @param type         the kind of event
+     * @param ticketNumber the ticket the event applies to
+     * @param agentName    the name of the agent that caused the event
+     * @param timestamp    the event time in epoch milliseconds
+     */
+    public HistoryEvent(EventHistory.EventType type, int ticketNumber, String agentName, long timestamp) {
+        this.type = type;
+        this.ticketNumber = ticketNumber;
+        this.agentName = agentName;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Gets the kind of event.
+     *
+     * @return the event type
+     */
+    public EventHistory.EventType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the ticket the event applies to.
+     *
+     * @return the ticket number
+     */
+    public int getTicketNumber() {
+        return ticketNumber;
+    }
+
+    /**
+     * Gets the name of the agent that caused the event.
+     *
+     * @return the agent name
+     */
+    public String getAgentName() {
+        return agentName;
+    }
+
+    /**
+     * Gets the event time.
+     *
+     * @return the timestamp in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        String time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).format(dateTime);
+        return "[" + time + "] Ticket " + ticketNumber + " " + type + " by " + agentName;
+    }
+}
@@ -1,11 +1,12 @@
 /**
  * This package contains logging-related classes for the Real-Time Event Ticketing System.
- * It provides functionality for logging operations, including saving logs to files and displaying logs in a table format.
+ * It provides functionality for logging operations, including saving configuration to files and keeping a searchable history of ticket events.
  *
  * <p>Classes in this package:
  * <ul>
  *   <li>{@link logger.FileHandler} - A class responsible for managing file-based logging operations, including saving and loading configuration data in JSON format using Google Gson. It interacts with the system to maintain a log of configuration changes.</li>
- *   <li>{@link logger.TableLogger} - A class that handles logging operations related to the real-time ticketing process. It logs ticketing events and displays the log in a table format, providing a detailed view of the ticketing operation.</li>
+ *   <li>{@link logger.EventHistory} - A bounded in-memory history of ticket events kept in primitive arrays, indexed by ticket number and agent so disputed purchases can be looked up in microseconds.</li>
+ *   <li>{@link logger.HistoryEvent} - A single event returned by an event history query.</li>
  * </ul>
  *
  * @author Raveen Gamachchige
@@ -0,0 +1,37 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for a pool being closed or its lifecycle controller changing state,
+ * for example from RUNNING to DRAINING or STOPPED.
+ */
+@Name("ticketing.Lifecycle")
+@Label("Lifecycle Transition")
+@Category("Ticketing")
+@Description("A ticket pool or its lifecycle controller changed state")
+public class LifecycleEvent extends jdk.jfr.Event {
+    /** The ID of the pool concerned. */
+    @Label("Pool ID")
+    public long poolId;
+
+    /** The state before the transition. */
+    @Label("From")
+    public String fromState;
+
+    /** The state after the transition. */
+    @Label("To")
+    public String toState;
+
+    /** The number of tickets left in the pool at the transition. */
+    @Label("Available Tickets")
+    public int availableTickets;
+
+    /**
+     * Creates an event.
+     */
+    public LifecycleEvent() {}
+}
@@ -0,0 +1,28 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for a pool selling its last ticket.
+ */
+@Name("ticketing.SoldOut")
+@Label("Sold Out")
+@Category("Ticketing")
+@Description("A ticket pool sold its last ticket")
+public class SoldOutEvent extends jdk.jfr.Event {
+    /** The ID of the pool that sold out. */
+    @Label("Pool ID")
+    public long poolId;
+
+    /** The total number of tickets sold by the pool. */
+    @Label("Total Tickets Sold")
+    public int totalTicketsSold;
+
+    /**
+     * Creates an event.
+     */
+    public SoldOutEvent() {}
+}
@@ -0,0 +1,43 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a vendor adding tickets to a pool.
+ * The event duration covers the time spent inside {@code TicketPool.addTickets} once the pool's monitor is held.
+ */
+@Name("ticketing.TicketsAdded")
+@Label("Tickets Added")
+@Category("Ticketing")
+@Description("A vendor released tickets into a ticket pool")
+@StackTrace(false)
+public class TicketsAddedEvent extends jdk.jfr.Event {
+    /** The ID of the pool the tickets were added to. */
+    @Label("Pool ID")
+    public long poolId;
+
+    /** The name of the vendor thread. */
+    @Label("Agent")
+    public String agentName;
+
+    /** The number of tickets the vendor asked to add. */
+    @Label("Requested")
+    public int requested;
+
+    /** The number of tickets actually added, less than requested near capacity. */
+    @Label("Batch Size")
+    public int batchSize;
+
+    /** The number of tickets in the pool after the addition. */
+    @Label("Pool Depth")
+    public int poolDepth;
+
+    /**
+     * Creates an event. Fields are filled in only if the event is going to be committed.
+     */
+    public TicketsAddedEvent() {}
+}
@@ -0,0 +1,56 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for a customer buying tickets from a pool, whether through
+ * {@code TicketPool.removeTickets}, the non-blocking {@code tryRemoveTickets} or a tiered or bundle purchase.
+ * The event duration covers the whole call once the pool's monitor is held, including any time spent waiting
+ * for vendors. Time spent blocked on the monitor itself is recorded by the
+ * JDK's own {@code jdk.JavaMonitorEnter} event.
+ */
+@Name("ticketing.TicketsRemoved")
+@Label("Tickets Removed")
+@Category("Ticketing")
+@Description("A customer bought tickets from a ticket pool")
+@StackTrace(false)
+public class TicketsRemovedEvent extends jdk.jfr.Event {
+    /** The ID of the pool the tickets were bought from. */
+    @Label("Pool ID")
+    public long poolId;
+
+    /** The name of the customer thread. */
+    @Label("Agent")
+    public String agentName;
+
+    /** The number of tickets the customer asked for. */
+    @Label("Requested")
+    public int requested;
+
+    /** The number of tickets actually bought. */
+    @Label("Batch Size")
+    public int batchSize;
+
+    /** The number of tickets left in the pool after the purchase. */
+    @Label("Pool Depth")
+    public int poolDepth;
+
+    /** The time the customer spent waiting in the pool for tickets to be added. */
+    @Label("Wait Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long waitDuration;
+
+    /** The number of times the customer waited before buying. */
+    @Label("Waits")
+    public int waits;
+
+    /**
+     * Creates an event. Fields are filled in only if the event is going to be committed.
+     */
+    public TicketsRemovedEvent() {}
+}
@@ -0,0 +1,18 @@
+/**
+ * This package contains the Java Flight Recorder events of the Real-Time Event Ticketing System.
+ * They are committed by the ticket pool and lifecycle controller so sales stalls can be lined up with
+ * garbage collection and lock contention in a recording. When no recording is running they cost almost nothing.
+ * The bundled ticketing.jfc profile enables them together with lower lock contention thresholds.
+ *
+ * <p>Classes in this package:
+ * <ul>
+ *   <li>{@link monitoring.TicketsAddedEvent} - Records a vendor adding tickets, with the batch size, pool depth and vendor name.</li>
+ *   <li>{@link monitoring.TicketsRemovedEvent} - Records a customer buying tickets, with the batch size, wait duration, pool depth and customer name.</li>
+ *   <li>{@link monitoring.SoldOutEvent} - Records a pool selling its last ticket.</li>
+ *   <li>{@link monitoring.LifecycleEvent} - Records a pool closing or its lifecycle controller changing state.</li>
+ * </ul>
+ *
+ * @author Raveen Gamachchige
+ * @version 1.0
+ */
+package monitoring;
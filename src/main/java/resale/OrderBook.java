@@ -0,0 +1,308 @@
+package resale;
+
+import java.util.Arrays;
+
+/**
+ * A price-time priority order book for resale tickets of a single event.
+ * Every ask offers one specific ticket and every bid asks for any one ticket. An incoming order trades with the
+ * best-priced order on the other side, the oldest first at that price, at the price of the order already resting
+ * in the book. Orders that do not trade rest in the book until they are matched or cancelled. An order that would
+ * trade with its own trader's order is rejected, so nobody can buy their own ticket to fake a trade price.
+ *
+ * <p>The book is kept in primitive arrays. Prices map to fixed price levels, each level is a doubly linked
+ * first-in first-out list of order slots, and order IDs carry their slot number so cancelling needs no lookup map.
+ * The book is not thread-safe: it is meant to be driven by a single writer thread, as {@link ResaleMarket} does.
+ */
+public class OrderBook {
+    private static final int INITIAL_ORDERS = 1024;
+    private static final int NONE = -1;
+
+    private final long tickCents;
+    private final int levelCount;
+    private final TradeListener tradeListener;
+
+    // Price levels: the first and last order slot resting at each level, or NONE
+    private final int[] bidHead;
+    private final int[] bidTail;
+    private final int[] askHead;
+    private final int[] askTail;
+    private int bestBid = NONE;  // Highest level with a bid
+    private int bestAsk;         // Lowest level with an ask, levelCount when there are none
+
+    // Orders, one slot each, reused through a free list
+    private long[] orderIds = new long[INITIAL_ORDERS];
+    private long[] traderIds = new long[INITIAL_ORDERS];
+    private int[] ticketNumbers = new int[INITIAL_ORDERS];
+    private int[] levels = new int[INITIAL_ORDERS];
+    private int[] next = new int[INITIAL_ORDERS];
+    private int[] prev = new int[INITIAL_ORDERS];
+    private boolean[] bids = new boolean[INITIAL_ORDERS];
+    private int usedSlots;
+    private int freeSlot = NONE;
+    private int restingOrders;
+    private long nextSequence = 1;
+
+    /**
+     * Creates an empty order book.
+     *
+     * @param maxPriceCents the highest price an order may have, in cents
+     * @param tickCents     the price step, every price must be a multiple of it
+     * @param tradeListener receives every trade
+     */
+    public OrderBook(long maxPriceCents, long tickCents, TradeListener tradeListener) {
+        if (tickCents <= 0 || maxPriceCents < tickCents) {
+            throw new IllegalArgumentException("Invalid price range");
+        }
+        this.tickCents = tickCents;
+        this.levelCount = (int) (maxPriceCents / tickCents) + 1;
+        this.tradeListener = tradeListener;
+        this.bidHead = new int[levelCount];
+        this.bidTail = new int[levelCount];
+        this.askHead = new int[levelCount];
+        this.askTail = new int[levelCount];
+        Arrays.fill(bidHead, NONE);
+        Arrays.fill(bidTail, NONE);
+        Arrays.fill(askHead, NONE);
+        Arrays.fill(askTail, NONE);
+        this.bestAsk = levelCount;
+    }
+
+    /**
+     * Posts a bid for one ticket. It trades with the cheapest ask at or below its price if there is one,
+     * otherwise it rests in the book.
+     *
+     * @param buyerId    the ID of the buyer
+     * @param priceCents the highest price the buyer will pay, in cents
+     * @return the ID of the bid
+     * @throws IllegalArgumentException if the price is not a positive multiple of the tick up to the maximum,
+     *                                  or the bid would trade with the buyer's own ask
+     */
+    public long placeBid(long buyerId, long priceCents) {
+        int level = levelOf(priceCents);
+        if (bestAsk <= level && traderIds[askHead[bestAsk]] == buyerId) {
+            throw new IllegalArgumentException("Bid would trade with the buyer's own ask");
+        }
+        int slot = allocate(buyerId, 0, level, true);
+        if (bestAsk <= level) {
+            int ask = askHead[bestAsk];
+            long askPrice = bestAsk * tickCents;
+            int ticketNumber = ticketNumbers[ask];
+            long sellerId = traderIds[ask];
+            long askId = orderIds[ask];
+            long bidId = orderIds[slot];
+            // Settle the book before reporting the trade, so a failing listener cannot leave it half updated
+            unlink(ask);
+            release(ask);
+            release(slot);
+            tradeListener.traded(ticketNumber, sellerId, buyerId, askPrice, askId, bidId);
+            return bidId;
+        }
+        append(slot);
+        return orderIds[slot];
+    }
+
+    /**
+     * Posts an ask for a ticket. It trades with the highest bid at or above its price if there is one,
+     * otherwise it rests in the book.
+     *
+     * @param sellerId     the ID of the holder selling
+     * @param ticketNumber the ticket offered
+     * @param priceCents   the lowest price the seller will accept, in cents
+     * @return the ID of the ask
+     * @throws IllegalArgumentException if the price is not a positive multiple of the tick up to the maximum,
+     *                                  or the ask would trade with the seller's own bid
+     */
+    public long placeAsk(long sellerId, int ticketNumber, long priceCents) {
+        int level = levelOf(priceCents);
+        if (bestBid >= level && traderIds[bidHead[bestBid]] == sellerId) {
+            throw new IllegalArgumentException("Ask would trade with the seller's own bid");
+        }
+        int slot = allocate(sellerId, ticketNumber, level, false);
+        if (bestBid >= level) {
+            int bid = bidHead[bestBid];
+            long bidPrice = bestBid * tickCents;
+            long buyerId = traderIds[bid];
+            long askId = orderIds[slot];
+            long bidId = orderIds[bid];
+            unlink(bid);
+            release(bid);
+            release(slot);
+            tradeListener.traded(ticketNumber, sellerId, buyerId, bidPrice, askId, bidId);
+            return askId;
+        }
+        append(slot);
+        return orderIds[slot];
+    }
+
+    /**
+     * Cancels a resting order.
+     *
+     * @param orderId the ID of the order
+     * @return the ticket number of a cancelled ask, 0 for a cancelled bid, or -1 if the order is not resting in the book
+     */
+    public int cancel(long orderId) {
+        int slot = (int) orderId;
+        if (slot < 0 || slot >= usedSlots || orderIds[slot] != orderId || levels[slot] == NONE) {
+            return -1;
+        }
+        int ticketNumber = bids[slot] ? 0 : ticketNumbers[slot];
+        unlink(slot);
+        release(slot);
+        return ticketNumber;
+    }
+
+    /**
+     * Gets the highest bid price.
+     *
+     * @return the best bid in cents, or 0 if there are no bids
+     */
+    public long getBestBidCents() {
+        return bestBid == NONE ? 0 : bestBid * tickCents;
+    }
+
+    /**
+     * Gets the lowest ask price.
+     *
+     * @return the best ask in cents, or 0 if there are no asks
+     */
+    public long getBestAskCents() {
+        return bestAsk == levelCount ? 0 : bestAsk * tickCents;
+    }
+
+    /**
+     * Gets the number of orders resting in the book.
+     *
+     * @return the resting order count
+     */
+    public int getRestingOrders() {
+        return restingOrders;
+    }
+
+    /**
+     * Converts a price to its level, checking that it is valid.
+     *
+     * @param priceCents the price in cents
+     * @return the price level
+     */
+    private int levelOf(long priceCents) {
+        if (priceCents <= 0 || priceCents % tickCents != 0 || priceCents / tickCents >= levelCount) {
+            throw new IllegalArgumentException("Price " + priceCents + " is not a multiple of " + tickCents +
+                    " up to " + (levelCount - 1) * tickCents);
+        }
+        return (int) (priceCents / tickCents);
+    }
+
+    /**
+     * Takes a free order slot and fills it in. The order ID is a sequence number in the high bits
+     * and the slot in the low 32 bits, so stale IDs of reused slots are rejected.
+     *
+     * @param traderId     the buyer or seller
+     * @param ticketNumber the ticket of an ask, 0 for a bid
+     * @param level        the price level
+     * @param bid          true for a bid
+     * @return the slot
+     */
+    private int allocate(long traderId, int ticketNumber, int level, boolean bid) {
+        int slot;
+        if (freeSlot != NONE) {
+            slot = freeSlot;
+            freeSlot = next[slot];
+        } else {
+            if (usedSlots == orderIds.length) {
+                grow();
+            }
+            slot = usedSlots++;
+        }
+        orderIds[slot] = (nextSequence++ << 32) | slot;
+        traderIds[slot] = traderId;
+        ticketNumbers[slot] = ticketNumber;
+        levels[slot] = level;
+        bids[slot] = bid;
+        next[slot] = NONE;
+        prev[slot] = NONE;
+        return slot;
+    }
+
+    /**
+     * Returns a slot to the free list.
+     *
+     * @param slot the slot
+     */
+    private void release(int slot) {
+        levels[slot] = NONE;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    /**
+     * Adds an order to the back of its price level and updates the best price.
+     *
+     * @param slot the order slot
+     */
+    private void append(int slot) {
+        int level = levels[slot];
+        int[] head = bids[slot] ? bidHead : askHead;
+        int[] tail = bids[slot] ? bidTail : askTail;
+        if (tail[level] == NONE) {
+            head[level] = slot;
+        } else {
+            next[tail[level]] = slot;
+            prev[slot] = tail[level];
+        }
+        tail[level] = slot;
+        if (bids[slot]) {
+            bestBid = Math.max(bestBid, level);
+        } else {
+            bestAsk = Math.min(bestAsk, level);
+        }
+        restingOrders++;
+    }
+
+    /**
+     * Removes a resting order from its price level. If that empties the best level, the next best
+     * non-empty level is found by scanning away from the spread.
+     *
+     * @param slot the order slot
+     */
+    private void unlink(int slot) {
+        int level = levels[slot];
+        int[] head = bids[slot] ? bidHead : askHead;
+        int[] tail = bids[slot] ? bidTail : askTail;
+        if (prev[slot] == NONE) {
+            head[level] = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NONE) {
+            tail[level] = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+        restingOrders--;
+        if (head[level] == NONE) {
+            if (bids[slot] && level == bestBid) {
+                while (bestBid >= 0 && bidHead[bestBid] == NONE) {
+                    bestBid--;
+                }
+            } else if (!bids[slot] && level == bestAsk) {
+                while (bestAsk < levelCount && askHead[bestAsk] == NONE) {
+                    bestAsk++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Doubles the order arrays.
+     */
+    private void grow() {
+        int capacity = orderIds.length * 2;
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        traderIds = Arrays.copyOf(traderIds, capacity);
+        ticketNumbers = Arrays.copyOf(ticketNumbers, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        bids = Arrays.copyOf(bids, capacity);
+    }
+}
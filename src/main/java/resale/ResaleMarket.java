@@ -0,0 +1,262 @@
+package resale;
+
+import gate.GateValidator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import store.TicketRecordStore;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The resale marketplace of a single event. Holders post asks for tickets they own and buyers post bids,
+ * which are matched by an {@link OrderBook}.
+ *
+ * <p>Any thread may submit orders, but only the market's own writer thread touches the book, so matching needs
+ * no locks. Submitted orders are queued and the caller gets a future that completes once the writer has
+ * processed them. Ownership is kept in the event's {@link TicketRecordStore}: a ticket is listed when its ask
+ * is accepted, which stops it being refunded or listed twice, and moves to the buyer when it trades.
+ * When a {@link GateValidator} is set, tickets whose holders have already been admitted cannot be listed.
+ */
+public class ResaleMarket {
+    private static final Logger logger = LogManager.getLogger(ResaleMarket.class);
+    private static final int PLACE_BID = 0;
+    private static final int PLACE_ASK = 1;
+    private static final int CANCEL = 2;
+    private static final int STOP = 3;
+
+    private final TicketRecordStore recordStore;
+    private final OrderBook orderBook;
+    private final BlockingQueue<Command> commands = new LinkedBlockingQueue<>();
+    private volatile TradeListener tradeListener;
+    private volatile GateValidator gateValidator;
+    private volatile long tradeCount;  // Written only by the writer thread
+    private volatile Thread writer;
+
+    /**
+     * An order or cancellation waiting for the writer thread.
+     */
+    private static final class Command {
+        private final int kind;
+        private final long traderId;
+        private final int ticketNumber;
+        private final long priceOrOrderId;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        /**
+         * Creates a command.
+         *
+         * @param kind           PLACE_BID, PLACE_ASK, CANCEL or STOP
+         * @param traderId       the buyer or seller
+         * @param ticketNumber   the ticket of an ask
+         * @param priceOrOrderId the order price in cents, or the order ID to cancel
+         */
+        private Command(int kind, long traderId, int ticketNumber, long priceOrOrderId) {
+            this.kind = kind;
+            this.traderId = traderId;
+            this.ticketNumber = ticketNumber;
+            this.priceOrOrderId = priceOrOrderId;
+        }
+    }
+
+    /**
+     * Creates a resale market.
+     *
+     * @param recordStore   the record store holding ticket ownership for the event
+     * @param maxPriceCents the highest resale price allowed, in cents
+     * @param tickCents     the price step, in cents
+     */
+    public ResaleMarket(TicketRecordStore recordStore, long maxPriceCents, long tickCents) {
+        this.recordStore = recordStore;
+        this.orderBook = new OrderBook(maxPriceCents, tickCents, this::settle);
+    }
+
+    /**
+     * Sets a listener told about every trade after ownership has been transferred.
+     * It is called on the writer thread, so it should return quickly. Exceptions it throws are logged and ignored.
+     *
+     * @param tradeListener the listener, or null for none
+     */
+    public void setTradeListener(TradeListener tradeListener) {
+        this.tradeListener = tradeListener;
+    }
+
+    /**
+     * Sets the gate validator of the event, so tickets already scanned at the gates are refused when listed.
+     *
+     * @param gateValidator the validator, or null to accept listings without checking the gates
+     */
+    public void setGateValidator(GateValidator gateValidator) {
+        this.gateValidator = gateValidator;
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public synchronized void start() {
+        if (writer == null) {
+            writer = new Thread(this::processCommands, "Resale Market");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Stops the writer thread after the orders already submitted have been processed.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer to finish
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (writer != null) {
+            commands.add(new Command(STOP, 0, 0, 0));
+            writer.join();
+            writer = null;
+        }
+    }
+
+    /**
+     * Submits a bid for one ticket.
+     *
+     * @param buyerId    the ID of the buyer
+     * @param priceCents the highest price the buyer will pay, in cents
+     * @return a future holding the bid's order ID, or -1 if the price is invalid or the bid would buy
+     *         the buyer's own ticket
+     */
+    public CompletableFuture<Long> placeBid(long buyerId, long priceCents) {
+        return submit(new Command(PLACE_BID, buyerId, 0, priceCents));
+    }
+
+    /**
+     * Submits an ask for a ticket the seller owns.
+     *
+     * @param sellerId     the ID of the ticket's current owner
+     * @param ticketNumber the ticket to sell
+     * @param priceCents   the lowest price the seller will accept, in cents
+     * @return a future holding the ask's order ID, or -1 if the seller does not own the ticket, it is already
+     *         listed or scanned at the gates, the price is invalid or the ask would trade with the seller's own bid
+     */
+    public CompletableFuture<Long> placeAsk(long sellerId, int ticketNumber, long priceCents) {
+        return submit(new Command(PLACE_ASK, sellerId, ticketNumber, priceCents));
+    }
+
+    /**
+     * Cancels a resting order. A cancelled ask's ticket is withdrawn from resale.
+     *
+     * @param orderId the ID of the order
+     * @return a future holding 1 if the order was cancelled, or -1 if it had already traded or been cancelled
+     */
+    public CompletableFuture<Long> cancel(long orderId) {
+        return submit(new Command(CANCEL, 0, 0, orderId));
+    }
+
+    /**
+     * Gets the number of trades made since the market started.
+     *
+     * @return the trade count
+     */
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * Transfers a traded ticket to the buyer and passes the trade on. Called by the order book on the writer thread.
+     *
+     * @param ticketNumber the ticket that changed hands
+     * @param sellerId     the seller
+     * @param buyerId      the buyer
+     * @param priceCents   the trade price in cents
+     * @param askOrderId   the ID of the ask
+     * @param bidOrderId   the ID of the bid
+     */
+    private void settle(int ticketNumber, long sellerId, long buyerId, long priceCents, long askOrderId, long bidOrderId) {
+        if (!recordStore.transfer(ticketNumber, buyerId, priceCents)) {
+            logger.error("Ticket " + ticketNumber + " traded but was no longer listed");
+        }
+        tradeCount++;
+        TradeListener listener = tradeListener;
+        if (listener != null) {
+            try {
+                listener.traded(ticketNumber, sellerId, buyerId, priceCents, askOrderId, bidOrderId);
+            } catch (RuntimeException e) {
+                // The trade has already settled, a failing listener must not fail the order that made it
+                logger.error("Trade listener failed for ticket " + ticketNumber + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Queues a command for the writer thread.
+     *
+     * @param command the command
+     * @return the command's result
+     */
+    private CompletableFuture<Long> submit(Command command) {
+        if (writer == null) {
+            throw new IllegalStateException("Resale market is not running");
+        }
+        commands.add(command);
+        return command.result;
+    }
+
+    /**
+     * The writer thread loop, the only code that touches the order book.
+     */
+    private void processCommands() {
+        try {
+            while (true) {
+                Command command = commands.take();
+                if (command.kind == STOP) {
+                    return;
+                }
+                try {
+                    command.result.complete(process(command));
+                } catch (RuntimeException e) {
+                    command.result.completeExceptionally(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.info("Resale market interrupted");
+        }
+    }
+
+    /**
+     * Applies a single command to the order book.
+     *
+     * @param command the command
+     * @return the command's result
+     */
+    private long process(Command command) {
+        switch (command.kind) {
+            case PLACE_BID:
+                try {
+                    return orderBook.placeBid(command.traderId, command.priceOrOrderId);
+                } catch (IllegalArgumentException e) {
+                    return -1;
+                }
+            case PLACE_ASK:
+                if (!recordStore.list(command.ticketNumber, command.traderId)) {
+                    return -1;
+                }
+                // A holder who is already inside cannot sell the ticket on
+                GateValidator validator = gateValidator;
+                if (validator != null && validator.isScanned(command.ticketNumber)) {
+                    recordStore.unlist(command.ticketNumber);
+                    logger.warn("Ticket " + command.ticketNumber + " not listed, its holder has already been admitted");
+                    return -1;
+                }
+                try {
+                    return orderBook.placeAsk(command.traderId, command.ticketNumber, command.priceOrOrderId);
+                } catch (IllegalArgumentException e) {
+                    recordStore.unlist(command.ticketNumber);
+                    return -1;
+                }
+            default:
+                int ticketNumber = orderBook.cancel(command.priceOrOrderId);
+                if (ticketNumber > 0) {
+                    recordStore.unlist(ticketNumber);
+                }
+                return ticketNumber >= 0 ? 1 : -1;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package resale;
+
+/**
+ * Receives the trades made by an {@link OrderBook}.
+ * Trades are reported with primitive arguments so matching allocates nothing.
+ */
+public interface TradeListener {
+    /**
+     * Called when a bid and an ask are matched.
+     *
+     * @param ticketNumber the ticket that changed hands
+     * @param sellerId     the ID of the holder that posted the ask
+     * @param buyerId      the ID of the buyer that posted the bid
+     * @param priceCents   the trade price in cents, which is the price of the order that was resting in the book
+     * @param askOrderId   the ID of the ask
+     * @param bidOrderId   the ID of the bid
+     */
+    void traded(int ticketNumber, long sellerId, long buyerId, long priceCents, long askOrderId, long bidOrderId);
+}
@@ -0,0 +1,16 @@
+/**
+ * This package contains the resale marketplace of the Real-Time Event Ticketing System.
+ * Ticket holders post asks and buyers post bids, which are matched by price and then time, and traded tickets
+ * change owner in the event's ticket record store.
+ *
+ * <p>Classes in this package:
+ * <ul>
+ *   <li>{@link resale.OrderBook} - A price-time priority order book in primitive arrays with fixed price levels, driven by a single thread.</li>
+ *   <li>{@link resale.ResaleMarket} - Runs an event's order book on its own writer thread, checks that sellers own their tickets and transfers ownership on every trade.</li>
+ *   <li>{@link resale.TradeListener} - The interface through which matched trades are reported.</li>
+ * </ul>
+ *
+ * @author Raveen Gamachchige
+ * @version 1.0
+ */
+package resale;
@@ -0,0 +1,267 @@
+package simulation;
+
+import core.TicketPool;
+import core.TicketingSystem;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * A single-threaded discrete-event simulator that drives a {@link TicketPool} with simulated vendors and customers.
+ * Instead of a thread per agent sleeping in real time, every agent is an event on a priority queue ordered by
+ * a virtual clock. The loop jumps straight from one event to the next, so hours of simulated sales run in seconds
+ * and millions of customers need no more memory than the ones currently waiting.
+ *
+ * <p>Vendors release tickets every second, as {@link threads.Vendor} does. Customers arrive at random over the
+ * arrival window. A customer who cannot buy straight away joins a first-come first-served waiting line that is
+ * served as soon as a vendor releases tickets, rather than polling the pool every second, so waiting customers
+ * cost no events. Customers who wait longer than their patience, or arrive after the event sells out, give up.
+ * The pool is used through its non-blocking methods, so the simulation never waits on the pool's monitor.
+ */
+public class SalesSimulator {
+    private static final long RELEASE_INTERVAL_MILLIS = 1000; // Matches the vendor thread sleep
+    private static final int VENDOR = 0;
+    private static final int ARRIVAL = 1;
+    private static final int CUSTOMER = 2;
+
+    private final TicketPool ticketPool;
+    private final int vendorCount;
+    private final int ticketReleaseRate;
+    private final int customerCount;
+    private final int customerRetrievalRate;
+    private final long arrivalWindowMillis;
+    private final long patienceMillis;
+    private final SplittableRandom random;
+    private final PriorityQueue<Agent> events = new PriorityQueue<>(
+            Comparator.comparingLong((Agent agent) -> agent.time).thenComparingLong(agent -> agent.sequence));
+    private final ArrayDeque<Agent> waitingLine = new ArrayDeque<>();
+    private long nextSequence;
+    private int customersServed;
+    private int customersGaveUp;
+    private long totalWaitMillis;
+    private long maxWaitMillis;
+
+    /**
+     * A simulated vendor, customer or the customer arrival process, scheduled at a point in virtual time.
+     * Agents are rescheduled in place, so a running simulation allocates nothing for repeat visits.
+     */
+    private static final class Agent {
+        private final int kind;
+        private final long arrivalTime;
+        private long time;
+        private long sequence; // Breaks ties so events at the same time run in the order they were scheduled
+
+        /**
+         * Creates an agent.
+         *
+         * @param kind        VENDOR, ARRIVAL or CUSTOMER
+         * @param arrivalTime the virtual time the agent arrived
+         */
+        private Agent(int kind, long arrivalTime) {
+            this.kind = kind;
+            this.arrivalTime = arrivalTime;
+        }
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param ticketPool            the pool to sell from
+     * @param vendorCount           the number of simulated vendors
+     * @param ticketReleaseRate     the tickets each vendor releases per second
+     * @param customerCount         the number of simulated customers
+     * @param customerRetrievalRate the tickets each customer wants to buy
+     * @param arrivalWindowMillis   the virtual time over which customers arrive
+     * @param patienceMillis        how long a customer waits in line before giving up
+     * @param seed                  the random seed, so runs can be repeated exactly
+     */
+    public SalesSimulator(TicketPool ticketPool, int vendorCount, int ticketReleaseRate, int customerCount,
+                          int customerRetrievalRate, long arrivalWindowMillis, long patienceMillis, long seed) {
+        this.ticketPool = ticketPool;
+        this.vendorCount = vendorCount;
+        this.ticketReleaseRate = ticketReleaseRate;
+        this.customerCount = customerCount;
+        this.customerRetrievalRate = customerRetrievalRate;
+        this.arrivalWindowMillis = arrivalWindowMillis;
+        this.patienceMillis = patienceMillis;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Runs the simulation until no events are left or the virtual clock passes the duration.
+     * A simulator is meant to be run once, against a fresh pool.
+     *
+     * @param durationMillis the virtual time to simulate
+     * @return the results of the run
+     * @throws InterruptedException if the thread is interrupted while adding tickets
+     */
+    public SimulationResult run(long durationMillis) throws InterruptedException {
+        TicketingSystem.vendorThreads = false;
+        TicketingSystem.customerThreads = false;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < vendorCount; i++) {
+            schedule(new Agent(VENDOR, 0), 0);
+        }
+        if (customerCount > 0) {
+            schedule(new Agent(ARRIVAL, 0), nextArrivalDelay());
+        }
+
+        long now = 0;
+        long eventsProcessed = 0;
+        int customersArrived = 0;
+        int peakWaitingCustomers = 0;
+        long soldOutAtMillis = -1;
+
+        while (!events.isEmpty() && events.peek().time <= durationMillis) {
+            Agent agent = events.poll();
+            now = agent.time;
+            eventsProcessed++;
+            switch (agent.kind) {
+                case VENDOR:
+                    // A vendor leaves once every ticket number has been issued
+                    if (!allTicketsIssued()) {
+                        ticketPool.addTickets(ticketReleaseRate);
+                        schedule(agent, now + RELEASE_INTERVAL_MILLIS);
+                    }
+                    serveWaitingLine(now);
+                    break;
+                case ARRIVAL:
+                    customersArrived++;
+                    schedule(new Agent(CUSTOMER, now), now);
+                    if (customersArrived < customerCount) {
+                        schedule(agent, now + nextArrivalDelay());
+                    }
+                    break;
+                default:
+                    if (!waitingLine.isEmpty() || !tryBuy(agent, now)) {
+                        waitingLine.add(agent);
+                        peakWaitingCustomers = Math.max(peakWaitingCustomers, waitingLine.size());
+                        serveWaitingLine(now);
+                    }
+            }
+            if (soldOutAtMillis < 0 && allTicketsIssued() && ticketPool.getAvailableTickets() == 0) {
+                soldOutAtMillis = now;
+            }
+        }
+
+        // Customers still in line whose patience has run out by the end of the run give up
+        for (Agent agent : waitingLine) {
+            if (now - agent.arrivalTime > patienceMillis) {
+                customersGaveUp++;
+            }
+        }
+        int customersWaiting = customersArrived - customersServed - customersGaveUp;
+        return new SimulationResult(now, eventsProcessed, (System.nanoTime() - startTime) / 1_000_000,
+                customersArrived, customersServed, customersGaveUp, customersWaiting, peakWaitingCustomers,
+                ticketPool.getTotalTicketsSold(), ticketPool.getAvailableTickets(),
+                customersServed > 0 ? (double) totalWaitMillis / customersServed : 0, maxWaitMillis, soldOutAtMillis);
+    }
+
+    /**
+     * Serves the waiting line in arrival order while there are tickets to sell.
+     * Customers whose patience has run out leave the line without buying, and once the event
+     * is sold out everyone still in line gives up.
+     *
+     * @param now the current virtual time
+     */
+    private void serveWaitingLine(long now) {
+        while (!waitingLine.isEmpty()) {
+            Agent agent = waitingLine.peek();
+            if (now - agent.arrivalTime > patienceMillis) {
+                waitingLine.poll();
+                customersGaveUp++;
+            } else if (tryBuy(agent, now)) {
+                waitingLine.poll();
+            } else if (allTicketsIssued() && ticketPool.getAvailableTickets() == 0) {
+                customersGaveUp += waitingLine.size();
+                waitingLine.clear();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tries to buy a customer's tickets from the pool. While vendors are still releasing tickets a customer
+     * only buys a full order; once every ticket has been issued they take whatever is left, as
+     * {@link TicketPool#removeTickets(int)} does.
+     *
+     * @param agent the customer
+     * @param now   the current virtual time
+     * @return true if the customer bought tickets
+     */
+    private boolean tryBuy(Agent agent, long now) {
+        int available = ticketPool.getAvailableTickets();
+        if (available == 0 || (available < customerRetrievalRate && !allTicketsIssued())) {
+            return false;
+        }
+        if (ticketPool.tryRemoveTickets(customerRetrievalRate).length == 0) {
+            return false;
+        }
+        long waitMillis = now - agent.arrivalTime;
+        totalWaitMillis += waitMillis;
+        maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+        customersServed++;
+        return true;
+    }
+
+    /**
+     * Checks whether every ticket number up to the pool's capacity has been issued, so no more are coming.
+     *
+     * @return true if vendors have nothing left to release
+     */
+    private boolean allTicketsIssued() {
+        return ticketPool.getTicketsIssued() >= ticketPool.getMaxTicketCapacity();
+    }
+
+    /**
+     * Puts an agent on the event queue at a point in virtual time.
+     *
+     * @param agent the agent to schedule
+     * @param time  the virtual time of its next event
+     */
+    private void schedule(Agent agent, long time) {
+        agent.time = time;
+        agent.sequence = nextSequence++;
+        events.add(agent);
+    }
+
+    /**
+     * Draws the gap until the next customer arrives, so arrivals form a Poisson process
+     * that spreads the customers across the arrival window on average.
+     *
+     * @return the delay in virtual milliseconds
+     */
+    private long nextArrivalDelay() {
+        double meanGap = (double) arrivalWindowMillis / customerCount;
+        return Math.round(-Math.log(1 - random.nextDouble()) * meanGap);
+    }
+
+    /**
+     * Runs a simulation from the command line with per-operation logging turned off.
+     *
+     * @param args vendor count, customer count, max ticket capacity, release rate, retrieval rate,
+     *             arrival window, customer patience and simulated duration, the last three in seconds
+     * @throws InterruptedException if the simulation is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int vendorCount = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int customerCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int maxTicketCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 500_000;
+        int ticketReleaseRate = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int customerRetrievalRate = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        long arrivalWindowSeconds = args.length > 5 ? Long.parseLong(args[5]) : 3600;
+        long patienceSeconds = args.length > 6 ? Long.parseLong(args[6]) : 1800;
+        long durationSeconds = args.length > 7 ? Long.parseLong(args[7]) : 4 * 3600;
+
+        Configurator.setRootLevel(Level.WARN);
+        SalesSimulator simulator = new SalesSimulator(new TicketPool(0, maxTicketCapacity), vendorCount,
+                ticketReleaseRate, customerCount, customerRetrievalRate, arrivalWindowSeconds * 1000,
+                patienceSeconds * 1000, 42);
+        System.out.println(simulator.run(durationSeconds * 1000));
+    }
+}
@@ -0,0 +1,184 @@
+package simulation;
+
+/**
+ * The outcome of a {@link SalesSimulator} run.
+ */
+public final class SimulationResult {
+    private final long simulatedMillis;
+    private final long eventsProcessed;
+    private final long elapsedMillis;
+    private final int customersArrived;
+    private final int customersServed;
+    private final int customersGaveUp;
+    private final int customersWaiting;
+    private final int peakWaitingCustomers;
+    private final int ticketsSold;
+    private final int ticketsRemaining;
+    private final double averageWaitMillis;
+    private final long maxWaitMillis;
+    private final long soldOutAtMillis;
+
+    /**
+     * Creates a simulation result.
+     *
+     * @param simulatedMillis      the virtual time of the last event processed
+     * @param eventsProcessed      the number of events processed
+     * @param elapsedMillis        the real time the run took, in milliseconds
+     * @param customersArrived     the number of customers that arrived
+     * @param customersServed      the number of customers that bought tickets
+     * @param customersGaveUp      the number of customers whose patience ran out or who found the event sold out
+     * @param customersWaiting     the number of customers still waiting when the run ended
+     * @param peakWaitingCustomers the largest number of customers waiting at once
+     * @param ticketsSold          the total number of tickets sold
+     * @param ticketsRemaining     the number of unsold tickets left in the pool
+     * @param averageWaitMillis    the average virtual wait of served customers
+     * @param maxWaitMillis        the longest virtual wait of a served customer
+     * @param soldOutAtMillis      the virtual time the event sold out, or -1 if it did not
+     */
+    public SimulationResult(long simulatedMillis, long eventsProcessed, long elapsedMillis, int customersArrived,
+                            int customersServed, int customersGaveUp, int customersWaiting, int peakWaitingCustomers,
+                            int ticketsSold, int ticketsRemaining, double averageWaitMillis, long maxWaitMillis,
+                            long soldOutAtMillis) {
+        this.simulatedMillis = simulatedMillis;
+        this.eventsProcessed = eventsProcessed;
+        this.elapsedMillis = elapsedMillis;
+        this.customersArrived = customersArrived;
+        this.customersServed = customersServed;
+        this.customersGaveUp = customersGaveUp;
+        this.customersWaiting = customersWaiting;
+        this.peakWaitingCustomers = peakWaitingCustomers;
+        this.ticketsSold = ticketsSold;
+        this.ticketsRemaining = ticketsRemaining;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.soldOutAtMillis = soldOutAtMillis;
+    }
+
+    /**
+     * Gets the virtual time of the last event processed.
+     *
+     * @return the simulated time in milliseconds
+     */
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+
+    /**
+     * Gets the number of events processed.
+     *
+     * @return the event count
+     */
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    /**
+     * Gets the real time the run took.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets the number of customers that arrived.
+     *
+     * @return the arrived customer count
+     */
+    public int getCustomersArrived() {
+        return customersArrived;
+    }
+
+    /**
+     * Gets the number of customers that bought tickets.
+     *
+     * @return the served customer count
+     */
+    public int getCustomersServed() {
+        return customersServed;
+    }
+
+    /**
+     * Gets the number of customers whose patience ran out or who found the event sold out.
+     *
+     * @return the count of customers that gave up
+     */
+    public int getCustomersGaveUp() {
+        return customersGaveUp;
+    }
+
+    /**
+     * Gets the number of customers still waiting to buy when the run ended.
+     *
+     * @return the waiting customer count
+     */
+    public int getCustomersWaiting() {
+        return customersWaiting;
+    }
+
+    /**
+     * Gets the largest number of customers waiting to buy at the same time.
+     *
+     * @return the peak waiting customer count
+     */
+    public int getPeakWaitingCustomers() {
+        return peakWaitingCustomers;
+    }
+
+    /**
+     * Gets the total number of tickets sold.
+     *
+     * @return the sold ticket count
+     */
+    public int getTicketsSold() {
+        return ticketsSold;
+    }
+
+    /**
+     * Gets the number of unsold tickets left in the pool.
+     *
+     * @return the remaining ticket count
+     */
+    public int getTicketsRemaining() {
+        return ticketsRemaining;
+    }
+
+    /**
+     * Gets the average virtual time served customers waited between arriving and buying.
+     *
+     * @return the average wait in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    /**
+     * Gets the longest virtual time a served customer waited.
+     *
+     * @return the longest wait in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Gets the virtual time the event sold out.
+     *
+     * @return the sell-out time in milliseconds, or -1 if the event did not sell out
+     */
+    public long getSoldOutAtMillis() {
+        return soldOutAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Simulated " + simulatedMillis / 1000 + " s in " + elapsedMillis + " ms (" + eventsProcessed + " events)\n" +
+                "Customers arrived: " + customersArrived + ", served: " + customersServed + ", gave up: " +
+                customersGaveUp + ", still waiting: " + customersWaiting + ", peak waiting: " + peakWaitingCustomers + "\n" +
+                "Average wait: " + String.format("%.1f", averageWaitMillis / 1000) + " s, longest wait: " +
+                maxWaitMillis / 1000 + " s\n" +
+                "Tickets sold: " + ticketsSold + ", remaining: " + ticketsRemaining + ", sold out " +
+                (soldOutAtMillis >= 0 ? "at " + soldOutAtMillis / 1000 + " s" : "never");
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * This package contains the discrete-event simulator for the Real-Time Event Ticketing System.
+ * It drives the ticket pool with simulated vendors and customers on a virtual clock, so long on-sales
+ * can be planned for in seconds without a thread per agent.
+ *
+ * <p>Classes in this package:
+ * <ul>
+ *   <li>{@link simulation.SalesSimulator} - A single-threaded event loop over a priority queue that simulates millions of vendors and customers buying from a ticket pool.</li>
+ *   <li>{@link simulation.SimulationResult} - The outcome of a simulation run, including customer waits and the sell-out time.</li>
+ * </ul>
+ *
+ * @author Raveen Gamachchige
+ * @version 1.0
+ */
+package simulation;
@@ -0,0 +1,269 @@
+package store;
+
+import core.TicketPool;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bulk imports a promoter's ticket inventory file into a {@link TicketPool}.
+ * The file is read through a {@link FileChannel} into a large direct buffer and parsed straight from its bytes,
+ * with no line or string objects. Ticket numbers are collected into a reusable array and handed to
+ * {@link TicketPool#addTicketBatch(int[], int)}, so the pool's monitor is taken and its capacity checked
+ * once per batch instead of once per ticket.
+ *
+ * <p>Two formats are supported:
+ * <ul>
+ *   <li>CSV - one ticket per line with the ticket number in the first column. Other columns, and lines that
+ *       do not start with a digit such as headers, are ignored.</li>
+ *   <li>Binary - ticket numbers as consecutive 4-byte big-endian integers.</li>
+ * </ul>
+ */
+public class InventoryImporter {
+    private static final Logger logger = LogManager.getLogger(InventoryImporter.class);
+    private static final int READ_BUFFER_SIZE = 1 << 20; // 1 MB per read from the channel
+    private static final int DEFAULT_BATCH_SIZE = 65536;
+
+    private final TicketPool ticketPool;
+    private final int[] batch;
+    private int batchCount;
+    private long ticketsRead;
+    private long ticketsAdded;
+
+    /**
+     * The layout of an inventory file.
+     */
+    public enum Format {
+        /** Text with the ticket number in the first column of each line. */
+        CSV,
+        /** Consecutive 4-byte big-endian ticket numbers. */
+        BINARY;
+
+        /**
+         * Chooses a format from a file name, treating .bin and .dat files as binary and everything else as CSV.
+         *
+         * @param path the inventory file
+         * @return the format of the file
+         */
+        public static Format forFile(Path path) {
+            String name = path.getFileName().toString().toLowerCase();
+            return name.endsWith(".bin") || name.endsWith(".dat") ? BINARY : CSV;
+        }
+    }
+
+    /**
+     * Creates an importer with the default batch size.
+     *
+     * @param ticketPool the pool to load tickets into
+     */
+    public InventoryImporter(TicketPool ticketPool) {
+        this(ticketPool, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an importer.
+     *
+     * @param ticketPool the pool to load tickets into
+     * @param batchSize  the number of tickets added to the pool at a time
+     */
+    public InventoryImporter(TicketPool ticketPool, int batchSize) {
+        this.ticketPool = ticketPool;
+        this.batch = new int[batchSize];
+    }
+
+    /**
+     * Imports an inventory file, choosing its format from the file name.
+     *
+     * @param path the inventory file
+     * @return the number of tickets added to the pool
+     * @throws IOException if the file cannot be read
+     */
+    public long importFile(Path path) throws IOException {
+        return importFile(path, Format.forFile(path));
+    }
+
+    /**
+     * Imports an inventory file. Tickets that the pool rejects, because they are out of range, already issued
+     * or beyond its capacity, are counted as read but not added.
+     *
+     * @param path   the inventory file
+     * @param format the layout of the file
+     * @return the number of tickets added to the pool
+     * @throws IOException if the file cannot be read
+     */
+    public long importFile(Path path, Format format) throws IOException {
+        long startTime = System.nanoTime();
+        long readBefore = ticketsRead;
+        long addedBefore = ticketsAdded;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (format == Format.BINARY) {
+                readBinary(channel, buffer);
+            } else {
+                readCsv(channel, buffer);
+            }
+        }
+        flush();
+        long read = ticketsRead - readBefore;
+        long added = ticketsAdded - addedBefore;
+        logger.info("Imported " + added + " of " + read + " tickets from " + path + " in " +
+                (System.nanoTime() - startTime) / 1_000_000 + " ms");
+        return added;
+    }
+
+    /**
+     * Gets the number of ticket numbers read from all files imported so far.
+     *
+     * @return the tickets read
+     */
+    public long getTicketsRead() {
+        return ticketsRead;
+    }
+
+    /**
+     * Gets the number of tickets added to the pool from all files imported so far.
+     *
+     * @return the tickets added
+     */
+    public long getTicketsAdded() {
+        return ticketsAdded;
+    }
+
+    /**
+     * Reads 4-byte ticket numbers, carrying any partial number over to the next read.
+     *
+     * @param channel the open inventory file
+     * @param buffer  the read buffer
+     * @throws IOException if the file cannot be read
+     */
+    private void readBinary(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.remaining() >= Integer.BYTES) {
+                add(buffer.getInt());
+            }
+            buffer.compact();
+        }
+        if (buffer.position() > 0) {
+            logger.warn("Ignored " + buffer.position() + " trailing bytes that do not form a ticket number");
+        }
+    }
+
+    /**
+     * Parses the first column of every line as a ticket number, keeping the parser state between reads
+     * so numbers and lines may span buffer boundaries.
+     *
+     * @param channel the open inventory file
+     * @param buffer  the read buffer
+     * @throws IOException if the file cannot be read
+     */
+    private void readCsv(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long number = 0;
+        boolean lineStart = true;  // No byte of the current line has been seen yet
+        boolean inNumber = false;  // Reading the digits of the first column
+        boolean skipLine = false;  // The rest of the line is ignored
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n' || b == '\r') {
+                    if (inNumber) {
+                        addParsed(number);
+                    }
+                    number = 0;
+                    lineStart = true;
+                    inNumber = false;
+                    skipLine = false;
+                } else if (skipLine) {
+                    continue;
+                } else if (b >= '0' && b <= '9') {
+                    number = number * 10 + (b - '0');
+                    inNumber = true;
+                    lineStart = false;
+                    if (number > Integer.MAX_VALUE) {
+                        number = Integer.MAX_VALUE + 1L; // Keep out-of-range numbers from overflowing
+                    }
+                } else if (lineStart && (b == ' ' || b == '\t' || b == '"')) {
+                    continue; // Leading padding or a quoted first column
+                } else {
+                    // End of the first column, or a header or comment line
+                    if (inNumber) {
+                        addParsed(number);
+                    }
+                    inNumber = false;
+                    skipLine = true;
+                }
+            }
+            buffer.clear();
+        }
+        if (inNumber) {
+            addParsed(number);
+        }
+    }
+
+    /**
+     * Adds a parsed CSV number, counting numbers too large for a ticket as read but not added.
+     *
+     * @param number the parsed number
+     */
+    private void addParsed(long number) {
+        if (number > Integer.MAX_VALUE) {
+            ticketsRead++;
+        } else {
+            add((int) number);
+        }
+    }
+
+    /**
+     * Adds a ticket number to the current batch, sending the batch to the pool when it is full.
+     *
+     * @param ticketNumber the ticket number
+     */
+    private void add(int ticketNumber) {
+        ticketsRead++;
+        batch[batchCount++] = ticketNumber;
+        if (batchCount == batch.length) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the current batch to the pool.
+     */
+    private void flush() {
+        if (batchCount > 0) {
+            ticketsAdded += ticketPool.addTicketBatch(batch, batchCount);
+            batchCount = 0;
+        }
+    }
+
+    /**
+     * Imports inventory files into a new pool from the command line with per-batch logging turned off.
+     *
+     * @param args the max ticket capacity followed by one or more inventory files
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: InventoryImporter <maxTicketCapacity> <file>...");
+            return;
+        }
+        Configurator.setLevel(TicketPool.class.getName(), Level.WARN);
+        TicketPool ticketPool = new TicketPool(0, Integer.parseInt(args[0]));
+        InventoryImporter importer = new InventoryImporter(ticketPool);
+        for (int i = 1; i < args.length; i++) {
+            importer.importFile(Paths.get(args[i]));
+        }
+        System.out.println("Tickets read: " + importer.getTicketsRead() + ", added: " + importer.getTicketsAdded() +
+                ", available in pool: " + ticketPool.getAvailableTickets());
+    }
+}
@@ -0,0 +1,269 @@
+package store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An off-heap store of fixed-width ticket records, keyed by ticket number.
+ * Records live in direct {@link ByteBuffer} chunks outside the garbage collected heap,
+ * so events with tens of millions of tickets add almost nothing to heap size or GC pause times.
+ *
+ * <p>Each record holds a status, owner ID, price in cents and two timestamps.
+ * Status changes are atomic compare-and-set operations, so concurrent threads can never sell the same ticket twice.
+ */
+public class TicketRecordStore {
+    /** The ticket has not been issued yet. */
+    public static final int STATUS_NONE = 0;
+    /** The ticket has been released into the pool and can be bought. */
+    public static final int STATUS_AVAILABLE = 1;
+    /** The ticket is being updated by another thread. */
+    public static final int STATUS_LOCKED = 2;
+    /** The ticket has been sold. */
+    public static final int STATUS_SOLD = 3;
+    /** The ticket has been refunded by its owner. */
+    public static final int STATUS_REFUNDED = 4;
+    /** The ticket is listed for resale by its owner and cannot be refunded until it is sold or withdrawn. */
+    public static final int STATUS_LISTED = 5;
+
+    private static final int RECORD_SIZE = 40;        // Bytes per record, a multiple of 8 to keep fields aligned
+    private static final int STATUS_OFFSET = 0;       // int status (4 bytes, followed by 4 bytes of padding)
+    private static final int OWNER_OFFSET = 8;        // long owner ID
+    private static final int PRICE_OFFSET = 16;       // long price in cents
+    private static final int CREATED_OFFSET = 24;     // long time the ticket was issued, epoch milliseconds
+    private static final int UPDATED_OFFSET = 32;     // long time of the last status change, epoch milliseconds
+    private static final int RECORDS_PER_CHUNK = 1 << 20; // About 40 MB per chunk, well below the 2 GB buffer limit
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] chunks;
+    private final int capacity;
+
+    /**
+     * Allocates a store for ticket numbers 1 to capacity. All records start as {@link #STATUS_NONE}.
+     *
+     * @param capacity the highest ticket number the store can hold
+     */
+    public TicketRecordStore(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        int chunkCount = (capacity + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK;
+        chunks = new ByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            int records = Math.min(RECORDS_PER_CHUNK, capacity - i * RECORDS_PER_CHUNK);
+            // Over-allocate by 8 bytes so the slice can be aligned for atomic access
+            chunks[i] = ByteBuffer.allocateDirect(records * RECORD_SIZE + 8).alignedSlice(8).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Gets the highest ticket number the store can hold.
+     *
+     * @return the store capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Marks a ticket as issued and available for sale.
+     *
+     * @param ticketNumber the ticket number
+     * @param priceCents   the list price in cents
+     * @return true if the ticket had not been issued before
+     */
+    public boolean issue(int ticketNumber, long priceCents) {
+        return update(ticketNumber, STATUS_NONE, STATUS_AVAILABLE, 0, priceCents, true);
+    }
+
+    /**
+     * Marks an available ticket as sold to an owner.
+     *
+     * @param ticketNumber the ticket number
+     * @param ownerId      the ID of the buyer
+     * @param priceCents   the price paid in cents
+     * @return true if the ticket was available and is now sold, false if it was not available
+     */
+    public boolean sell(int ticketNumber, long ownerId, long priceCents) {
+        return update(ticketNumber, STATUS_AVAILABLE, STATUS_SOLD, ownerId, priceCents, false);
+    }
+
+    /**
+     * Lists a sold ticket for resale on behalf of its owner.
+     * The ticket is moved to {@link #STATUS_LISTED} before its owner is checked, so the owner cannot change in between.
+     *
+     * @param ticketNumber the ticket number
+     * @param ownerId      the ID of the holder listing the ticket
+     * @return true if the ticket was sold to ownerId and is now listed
+     */
+    public boolean list(int ticketNumber, long ownerId) {
+        if (!transition(ticketNumber, STATUS_SOLD, STATUS_LISTED)) {
+            return false;
+        }
+        if (getOwner(ticketNumber) != ownerId) {
+            transition(ticketNumber, STATUS_LISTED, STATUS_SOLD);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Withdraws a listed ticket from resale, leaving it with its current owner.
+     *
+     * @param ticketNumber the ticket number
+     * @return true if the ticket was listed and is now sold again
+     */
+    public boolean unlist(int ticketNumber) {
+        return transition(ticketNumber, STATUS_LISTED, STATUS_SOLD);
+    }
+
+    /**
+     * Transfers a listed ticket to a new owner at the resale price.
+     *
+     * @param ticketNumber the ticket number
+     * @param newOwnerId   the ID of the buyer
+     * @param priceCents   the resale price in cents
+     * @return true if the ticket was listed and now belongs to newOwnerId
+     */
+    public boolean transfer(int ticketNumber, long newOwnerId, long priceCents) {
+        return update(ticketNumber, STATUS_LISTED, STATUS_SOLD, newOwnerId, priceCents, false);
+    }
+
+    /**
+     * Atomically changes the status of a ticket, leaving the other fields untouched.
+     *
+     * @param ticketNumber the ticket number
+     * @param expected     the status the ticket must currently have
+     * @param newStatus    the status to move to
+     * @return true if the ticket had the expected status and was changed
+     */
+    public boolean transition(int ticketNumber, int expected, int newStatus) {
+        ByteBuffer chunk = chunkOf(ticketNumber);
+        int base = offsetOf(ticketNumber);
+        if (!INT.compareAndSet(chunk, base + STATUS_OFFSET, expected, newStatus)) {
+            return false;
+        }
+        LONG.setRelease(chunk, base + UPDATED_OFFSET, System.currentTimeMillis());
+        return true;
+    }
+
+    /**
+     * Gets the status of a ticket.
+     *
+     * @param ticketNumber the ticket number
+     * @return one of the STATUS constants
+     */
+    public int getStatus(int ticketNumber) {
+        return (int) INT.getAcquire(chunkOf(ticketNumber), offsetOf(ticketNumber) + STATUS_OFFSET);
+    }
+
+    /**
+     * Gets the owner of a ticket.
+     *
+     * @param ticketNumber the ticket number
+     * @return the owner ID, or 0 if the ticket has not been sold
+     */
+    public long getOwner(int ticketNumber) {
+        return readLong(ticketNumber, OWNER_OFFSET);
+    }
+
+    /**
+     * Gets the price of a ticket.
+     *
+     * @param ticketNumber the ticket number
+     * @return the list price, or the price paid once sold, in cents
+     */
+    public long getPriceCents(int ticketNumber) {
+        return readLong(ticketNumber, PRICE_OFFSET);
+    }
+
+    /**
+     * Gets the time a ticket was issued.
+     *
+     * @param ticketNumber the ticket number
+     * @return the issue time in epoch milliseconds, or 0 if not issued
+     */
+    public long getCreatedAt(int ticketNumber) {
+        return readLong(ticketNumber, CREATED_OFFSET);
+    }
+
+    /**
+     * Gets the time of a ticket's last status change.
+     *
+     * @param ticketNumber the ticket number
+     * @return the update time in epoch milliseconds
+     */
+    public long getUpdatedAt(int ticketNumber) {
+        return readLong(ticketNumber, UPDATED_OFFSET);
+    }
+
+    /**
+     * Moves a ticket between two statuses and writes its owner and price.
+     * The record is locked while the fields are written, so readers that see the new status also see the new fields.
+     *
+     * @param ticketNumber the ticket number
+     * @param expected     the status the ticket must currently have
+     * @param newStatus    the status to move to
+     * @param ownerId      the owner to record
+     * @param priceCents   the price to record in cents
+     * @param created      true to also record the issue time
+     * @return true if the ticket had the expected status and was changed
+     */
+    private boolean update(int ticketNumber, int expected, int newStatus, long ownerId, long priceCents, boolean created) {
+        ByteBuffer chunk = chunkOf(ticketNumber);
+        int base = offsetOf(ticketNumber);
+        if (!INT.compareAndSet(chunk, base + STATUS_OFFSET, expected, STATUS_LOCKED)) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        LONG.set(chunk, base + OWNER_OFFSET, ownerId);
+        LONG.set(chunk, base + PRICE_OFFSET, priceCents);
+        if (created) {
+            LONG.set(chunk, base + CREATED_OFFSET, now);
+        }
+        LONG.set(chunk, base + UPDATED_OFFSET, now);
+        INT.setRelease(chunk, base + STATUS_OFFSET, newStatus);
+        return true;
+    }
+
+    /**
+     * Reads a long field of a record after an acquiring read of its status.
+     *
+     * @param ticketNumber the ticket number
+     * @param fieldOffset  the offset of the field within the record
+     * @return the field value
+     */
+    private long readLong(int ticketNumber, int fieldOffset) {
+        ByteBuffer chunk = chunkOf(ticketNumber);
+        int base = offsetOf(ticketNumber);
+        INT.getAcquire(chunk, base + STATUS_OFFSET);
+        return (long) LONG.get(chunk, base + fieldOffset);
+    }
+
+    /**
+     * Finds the chunk holding a ticket's record.
+     *
+     * @param ticketNumber the ticket number
+     * @return the chunk containing the record
+     */
+    private ByteBuffer chunkOf(int ticketNumber) {
+        if (ticketNumber < 1 || ticketNumber > capacity) {
+            throw new IndexOutOfBoundsException("Ticket number " + ticketNumber + " is outside 1-" + capacity);
+        }
+        return chunks[(ticketNumber - 1) / RECORDS_PER_CHUNK];
+    }
+
+    /**
+     * Computes the byte offset of a ticket's record within its chunk.
+     *
+     * @param ticketNumber the ticket number
+     * @return the offset of the record
+     */
+    private static int offsetOf(int ticketNumber) {
+        return ((ticketNumber - 1) % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * This package contains storage for per-ticket data of the Real-Time Event Ticketing System.
+ * Records are kept off the garbage collected heap so very large events do not increase heap size or GC pauses.
+ *
+ * <p>Classes in this package:
+ * <ul>
+ *   <li>{@link store.TicketRecordStore} - A fixed-width record store in direct byte buffers, keyed by ticket number. It holds each ticket's status, owner ID, price and timestamps, and changes statuses with atomic compare-and-set operations, including listing and transferring tickets for resale.</li>
+ *   <li>{@link store.InventoryImporter} - Bulk imports ticket inventory from CSV or binary files through a FileChannel, adding tickets to a pool in large batches.</li>
+ * </ul>
+ *
+ * @author Raveen Gamachchige
+ * @version 1.0
+ */
+package store;
@@ -0,0 +1,206 @@
+package stress;
+
+import core.TicketPool;
+import core.TicketingSystem;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stress harness that runs hundreds of vendor and customer threads against a {@link TicketPool} at full speed.
+ * While the threads run, every worker periodically samples the pool under its monitor to verify that
+ * {@code sold + available <= maxTicketCapacity} always holds. After the run it verifies that every issued
+ * ticket number was sold exactly once or is still in the pool, and reports the throughput.
+ * The process exits with status 1 if any check fails.
+ */
+public class PoolStressHarness {
+    private final int vendorCount;
+    private final int customerCount;
+    private final int maxTicketCapacity;
+    private final int ticketReleaseRate;
+    private final int customerRetrievalRate;
+    private final List<String> violations = new ArrayList<>();
+    private final AtomicLong samples = new AtomicLong();
+    private static final int SAMPLE_INTERVAL = 64; // Operations between invariant samples per worker
+
+    /**
+     * Creates a stress harness.
+     *
+     * @param vendorCount           the number of vendor threads
+     * @param customerCount         the number of customer threads
+     * @param maxTicketCapacity     the maximum ticket capacity of the pool
+     * @param ticketReleaseRate     the tickets added per vendor call
+     * @param customerRetrievalRate the tickets bought per customer call
+     */
+    public PoolStressHarness(int vendorCount, int customerCount, int maxTicketCapacity,
+                             int ticketReleaseRate, int customerRetrievalRate) {
+        this.vendorCount = vendorCount;
+        this.customerCount = customerCount;
+        this.maxTicketCapacity = maxTicketCapacity;
+        this.ticketReleaseRate = ticketReleaseRate;
+        this.customerRetrievalRate = customerRetrievalRate;
+    }
+
+    /**
+     * Runs the stress test until the pool is sold out or the timeout expires.
+     *
+     * @param timeoutMillis the maximum time to run for
+     * @return true if every check passed
+     * @throws InterruptedException if the harness is interrupted
+     */
+    public boolean run(long timeoutMillis) throws InterruptedException {
+        TicketingSystem.vendorThreads = false;
+        TicketingSystem.customerThreads = false;
+        TicketPool pool = new TicketPool(0, maxTicketCapacity);
+        AtomicIntegerArray timesSold = new AtomicIntegerArray(maxTicketCapacity + 1);
+        AtomicLong operations = new AtomicLong();
+
+        List<Thread> vendors = new ArrayList<>();
+        for (int i = 0; i < vendorCount; i++) {
+            vendors.add(new Thread(() -> {
+                try {
+                    while (!TicketingSystem.vendorThreads && !pool.isClosed()) {
+                        pool.addTickets(ticketReleaseRate);
+                        if (operations.incrementAndGet() % SAMPLE_INTERVAL == 0) {
+                            checkCapacity(pool);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Vendor " + (i + 1)));
+        }
+        List<Thread> customers = new ArrayList<>();
+        for (int i = 0; i < customerCount; i++) {
+            customers.add(new Thread(() -> {
+                try {
+                    while (!pool.isClosed()) {
+                        int[] bought = pool.removeTickets(customerRetrievalRate);
+                        if (operations.incrementAndGet() % SAMPLE_INTERVAL == 0) {
+                            checkCapacity(pool);
+                        }
+                        if (bought.length > customerRetrievalRate) {
+                            violation("Customer bought " + bought.length + " tickets at retrieval rate " + customerRetrievalRate);
+                        }
+                        for (int ticketNumber : bought) {
+                            if (timesSold.incrementAndGet(ticketNumber) > 1) {
+                                violation("Ticket " + ticketNumber + " was sold more than once");
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Customer " + (i + 1)));
+        }
+
+        long startTime = System.nanoTime();
+        long deadline = startTime + timeoutMillis * 1_000_000;
+        vendors.forEach(Thread::start);
+        customers.forEach(Thread::start);
+
+        // Wait until the pool is sold out
+        while (System.nanoTime() < deadline) {
+            if (checkCapacity(pool) == maxTicketCapacity) {
+                break;
+            }
+            if (TicketingSystem.vendorThreads) {
+                pool.endReleases(); // Let customers buy the tickets that are left
+            }
+            Thread.sleep(1);
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        pool.close();
+        for (Thread thread : vendors) {
+            thread.join();
+        }
+        for (Thread thread : customers) {
+            thread.join();
+        }
+
+        // Every issued ticket is either sold exactly once or still in the pool
+        int issued = pool.getTicketsIssued();
+        int soldOnce = 0;
+        for (int ticketNumber = 1; ticketNumber <= maxTicketCapacity; ticketNumber++) {
+            int count = timesSold.get(ticketNumber);
+            if (count == 1) {
+                soldOnce++;
+            }
+            if (count > 0 && ticketNumber > issued) {
+                violation("Ticket " + ticketNumber + " was sold but never issued");
+            }
+        }
+        if (soldOnce != pool.getTotalTicketsSold()) {
+            violation("Pool reports " + pool.getTotalTicketsSold() + " sold but customers received " + soldOnce);
+        }
+        if (soldOnce + pool.getAvailableTickets() != issued) {
+            violation("Undersold: " + issued + " issued but only " + soldOnce + " sold and " +
+                    pool.getAvailableTickets() + " available");
+        }
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.println("Threads: " + vendorCount + " vendors, " + customerCount + " customers");
+        System.out.println("Tickets sold: " + soldOnce + " of " + maxTicketCapacity + " in " + String.format("%.3f", seconds) + " s");
+        System.out.println("Throughput: " + String.format("%.0f", soldOnce / seconds) + " tickets/s, " +
+                String.format("%.0f", operations.get() / seconds) + " pool operations/s");
+        System.out.println("Invariant samples: " + samples + ", violations: " + violations.size());
+        for (String violation : violations.subList(0, Math.min(10, violations.size()))) {
+            System.out.println("  " + violation);
+        }
+        return violations.isEmpty();
+    }
+
+    /**
+     * Reads the sold and available counts under the pool's monitor and checks them against the capacity.
+     *
+     * @param pool the pool to check
+     * @return the number of tickets sold
+     */
+    private int checkCapacity(TicketPool pool) {
+        int sold;
+        int available;
+        synchronized (pool) {
+            sold = pool.getTotalTicketsSold();
+            available = pool.getAvailableTickets();
+        }
+        samples.incrementAndGet();
+        if (sold + available > maxTicketCapacity) {
+            violation("Sold " + sold + " + available " + available + " exceeds capacity " + maxTicketCapacity);
+        }
+        return sold;
+    }
+
+    /**
+     * Records a failed check.
+     *
+     * @param message a description of the failure
+     */
+    private synchronized void violation(String message) {
+        violations.add(message);
+    }
+
+    /**
+     * Runs the stress test from the command line with per-operation logging turned off.
+     *
+     * @param args vendor count, customer count, max ticket capacity, release rate, retrieval rate and timeout in milliseconds
+     * @throws InterruptedException if the harness is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int vendorCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int customerCount = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        int maxTicketCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        int ticketReleaseRate = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int customerRetrievalRate = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+        long timeoutMillis = args.length > 5 ? Long.parseLong(args[5]) : 60_000;
+
+        Configurator.setRootLevel(Level.WARN);
+        boolean passed = new PoolStressHarness(vendorCount, customerCount, maxTicketCapacity,
+                ticketReleaseRate, customerRetrievalRate).run(timeoutMillis);
+        System.out.println(passed ? "PASSED" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * This package contains stress tools for the Real-Time Event Ticketing System.
+ * They run the ticket pool under heavy contention to validate its correctness and measure its throughput.
+ *
+ * <p>Classes in this package:
+ * <ul>
+ *   <li>{@link stress.PoolStressHarness} - Runs hundreds of vendor and customer threads against a ticket pool at full speed, checks for overselling and underselling, and reports throughput.</li>
+ * </ul>
+ *
+ * @author Raveen Gamachchige
+ * @version 1.0
+ */
+package stress;
@@ -1,4 +1,5 @@
 package threads;
+import core.LifecycleController;
 import core.TicketingSystem;
 import core.TicketPool;
 
@@ -8,6 +9,7 @@ import core.TicketPool;
 public class Customer implements Runnable {
     private final TicketPool ticketPool;
     private final int ticketRetrievalRate; // Tickets purchased per second
+    private final LifecycleController controller;
 
 
     /**
@@ -15,10 +17,12 @@ public class Customer implements Runnable {
      *
      * @param ticketPool         the ticket pool to update
      * @param ticketRetrievalRate the number of tickets to purchase per second
+     * @param controller         the lifecycle controller that owns this thread
      */
-    public Customer(TicketPool ticketPool, int ticketRetrievalRate) {
+    public Customer(TicketPool ticketPool, int ticketRetrievalRate, LifecycleController controller) {
         this.ticketPool = ticketPool;
         this.ticketRetrievalRate = ticketRetrievalRate;
+        this.controller = controller;
     }
 
     /**
@@ -28,9 +32,15 @@ public class Customer implements Runnable {
     public void run() {
 
         try {
-            while (!TicketingSystem.customerThreads) {
-                ticketPool.removeTickets(ticketRetrievalRate); // Remove tickets at the customer rate
-                Thread.sleep(1000); // Wait for 1 second before buying more
+            while (!TicketingSystem.customerThreads && controller.awaitRunnable(false)) {
+                controller.beginOperation();
+                try {
+                    // Remove tickets at the customer rate, subject to the pool's per-client rate limit
+                    ticketPool.purchaseTickets(Thread.currentThread().threadId(), ticketRetrievalRate);
+                } finally {
+                    controller.endOperation();
+                }
+                controller.sleep(1000); // Wait for 1 second before buying more, unless stopped
             }
         } catch (InterruptedException e) {
             System.out.println("Customer Thread interrupted");
@@ -0,0 +1,95 @@
+package threads;
+
+import core.AvailabilitySnapshot;
+import core.TicketPool;
+
+/**
+ * An additive-increase, multiplicative-decrease (AIMD) controller for a vendor's release rate.
+ * Before each release it compares the pool's occupancy and the customers' recent average wait time
+ * with their targets: while customers are waiting too long and the pool is below its target occupancy
+ * the rate grows by one ticket, and when the pool is above its target occupancy the rate is halved.
+ */
+public class ReleaseRateController {
+    /** Default fraction of the max ticket capacity to keep waiting in the pool. */
+    public static final double DEFAULT_TARGET_OCCUPANCY = 0.1;
+    /** Default average time, in milliseconds, a purchase may wait for tickets. */
+    public static final long DEFAULT_TARGET_WAIT_MILLIS = 100;
+    /** System property that turns on adaptive release in the applications, for example -Dticketing.adaptiveRelease=true. */
+    public static final String ADAPTIVE_RELEASE_PROPERTY = "ticketing.adaptiveRelease";
+
+    private final TicketPool ticketPool;
+    private final double targetOccupancy;
+    private final long targetWaitNanos;
+    private final int minRate;
+    private final int maxRate;
+    private int rate;
+    private long lastWaitNanos;  // Pool wait total at the previous update
+    private long lastRequests;   // Pool request count at the previous update
+
+    /**
+     * Creates a controller for one vendor.
+     *
+     * @param ticketPool       the pool the vendor releases tickets into
+     * @param initialRate      the release rate to start from
+     * @param minRate          the lowest release rate
+     * @param maxRate          the highest release rate
+     * @param targetOccupancy  the fraction of the max ticket capacity to keep in the pool
+     * @param targetWaitMillis the average time a purchase may wait for tickets
+     */
+    public ReleaseRateController(TicketPool ticketPool, int initialRate, int minRate, int maxRate,
+                                 double targetOccupancy, long targetWaitMillis) {
+        if (minRate < 1 || maxRate < minRate) {
+            throw new IllegalArgumentException("Rates must satisfy 1 <= minRate <= maxRate");
+        }
+        this.ticketPool = ticketPool;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rate = Math.max(minRate, Math.min(maxRate, initialRate));
+        this.targetOccupancy = targetOccupancy;
+        this.targetWaitNanos = targetWaitMillis * 1_000_000;
+        this.lastWaitNanos = ticketPool.getCustomerWaitNanos();
+        this.lastRequests = ticketPool.getCustomerRequests();
+    }
+
+    /**
+     * Checks whether adaptive release was asked for with the {@value #ADAPTIVE_RELEASE_PROPERTY} system property.
+     * It is off by default, so vendors release tickets at exactly the configured rate.
+     *
+     * @return true if vendors should adjust their release rate
+     */
+    public static boolean isAdaptiveReleaseRequested() {
+        return Boolean.getBoolean(ADAPTIVE_RELEASE_PROPERTY);
+    }
+
+    /**
+     * Gets the current release rate without updating it.
+     *
+     * @return the number of tickets to release per interval
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * Updates the release rate from the pool's occupancy and the customer wait time since the last update.
+     *
+     * @return the number of tickets to release in this interval
+     */
+    public int nextRate() {
+        long waitNanos = ticketPool.getCustomerWaitNanos();
+        long requests = ticketPool.getCustomerRequests();
+        long newRequests = requests - lastRequests;
+        long averageWait = newRequests > 0 ? (waitNanos - lastWaitNanos) / newRequests : 0;
+        lastWaitNanos = waitNanos;
+        lastRequests = requests;
+
+        AvailabilitySnapshot availability = ticketPool.getAvailabilitySnapshot(); // Read without the pool's monitor
+        double occupancy = (double) availability.getAvailableTickets() / availability.getMaxTicketCapacity();
+        if (occupancy > targetOccupancy) {
+            rate = Math.max(minRate, rate / 2); // Pool is filling up, back off quickly
+        } else if (averageWait > targetWaitNanos) {
+            rate = Math.min(maxRate, rate + 1); // Customers are starving, release a little more
+        }
+        return rate;
+    }
+}
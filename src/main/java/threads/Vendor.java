@@ -1,4 +1,5 @@
 package threads;
+import core.LifecycleController;
 import core.TicketingSystem;
 import core.TicketPool;
 /**
@@ -7,16 +8,34 @@ import core.TicketPool;
 public class Vendor implements Runnable {
     private final TicketPool ticketPool;
     private final int ticketReleaseRate; // Tickets added per second
+    private final LifecycleController controller;
+    private final ReleaseRateController rateController; // Adjusts the release rate, null for a fixed rate
 
     /**
      * Creates a new Vendor.
      *
      * @param ticketPool        the ticket pool to update
      * @param ticketReleaseRate the number of tickets to add per second
+     * @param controller        the lifecycle controller that owns this thread
      */
-    public Vendor(TicketPool ticketPool, int ticketReleaseRate) {
+    public Vendor(TicketPool ticketPool, int ticketReleaseRate, LifecycleController controller) {
+        this(ticketPool, ticketReleaseRate, controller, null);
+    }
+
+    /**
+     * Creates a new Vendor whose release rate is adjusted by a feedback controller.
+     *
+     * @param ticketPool        the ticket pool to update
+     * @param ticketReleaseRate the number of tickets to add per second when no rate controller is set
+     * @param controller        the lifecycle controller that owns this thread
+     * @param rateController    the controller that sets the release rate, or null for a fixed rate
+     */
+    public Vendor(TicketPool ticketPool, int ticketReleaseRate, LifecycleController controller,
+                  ReleaseRateController rateController) {
         this.ticketPool = ticketPool;
         this.ticketReleaseRate = ticketReleaseRate;
+        this.controller = controller;
+        this.rateController = rateController;
     }
 
     /**
@@ -25,13 +44,20 @@ public class Vendor implements Runnable {
     @Override
     public void run() {
         try {
-            while (!TicketingSystem.vendorThreads) {
-                ticketPool.addTickets(ticketReleaseRate); // Add tickets at the vendor rate
-                Thread.sleep(1000); // Wait for 1 second before adding more
-
+            // Bounded pools park their own vendors at capacity, so the global stop flag only applies to the others
+            while ((ticketPool.isBoundedProducer() || !TicketingSystem.vendorThreads) && controller.awaitRunnable(true)) {
+                ticketPool.awaitRoom(); // Parks here while the pool is full in bounded-producer mode
+                controller.beginOperation();
+                try {
+                    int rate = rateController != null ? rateController.nextRate() : ticketReleaseRate;
+                    ticketPool.addTickets(rate); // Add tickets at the vendor rate
+                } finally {
+                    controller.endOperation();
+                }
+                controller.sleep(1000); // Wait for 1 second before adding more, unless stopped
             }
         } catch (InterruptedException e) {
             System.out.println("Vendor Thread interrupted");
         }
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,7 @@
  * <ul>
  *   <li>{@link threads.Vendor} - A thread that simulates a vendor adding tickets to the pool at a specified release rate. It runs concurrently with customer threads and ensures that tickets are released as specified.</li>
  *   <li>{@link threads.Customer} - A thread that simulates a customer retrieving tickets from the pool at a specified retrieval rate. It interacts with the pool to simulate customers purchasing tickets until the pool is empty or the operation ends.</li>
+ *   <li>{@link threads.ReleaseRateController} - An AIMD feedback controller that adjusts a vendor's release rate to hold the pool occupancy and customer wait time at their targets.</li>
  * </ul>
  *
  * @author Raveen Gamachchige
@@ -13,16 +13,18 @@ import org.apache.logging.log4j.Logger;
 import javafx.animation.PauseTransition;
 import javafx.util.Duration;
 
-import logger.TableLogger;
+import logger.EventHistory;
+import logger.HistoryEvent;
 import core.TicketPool;
-import threads.Vendor;
-import threads.Customer;
+import core.PricingEngine;
+import core.LifecycleController;
+import core.ShutdownReport;
 import logger.FileHandler;
+import threads.ReleaseRateController;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.InputMismatchException;
 import java.util.List;
+import java.util.InputMismatchException;
 
 /**
  * This class represents the user interface of the Real-Time Ticketing System.
@@ -47,8 +49,10 @@ public class JavaFxInterface extends Application {
     private static final Logger logger = LogManager.getLogger(JavaFxInterface.class);
 
     private TicketPool ticketPool;
-    private List<Thread> threads = new ArrayList<>();
+    private LifecycleController controller;
     private TableLogger tableLogger;
+    private PricingEngine pricingEngine;
+    private static final int HISTORY_EVENTS_PER_TICKET = 4; // Added and sold, plus a refund and resale
 
     /**
      * Clears the status label after a short delay.
@@ -61,6 +65,17 @@ public class JavaFxInterface extends Application {
         pause.play();
     }
 
+    /**
+     * Stops the running vendor and customer threads, if any, and logs what was in flight.
+     */
+    private void stopController() {
+        if (controller != null) {
+            ShutdownReport report = controller.stop(TicketingSystem.STOP_TIMEOUT_MILLIS);
+            tableLogger.logMessage(report.toString());
+            controller = null;
+        }
+    }
+
     /**
      * Initializes the JavaFX application and sets up the user interface components.
      *
@@ -98,6 +113,9 @@ public class JavaFxInterface extends Application {
         Button startButton = new Button("Start Threads");
         Button stopButton = new Button("Stop Threads");
         Button resetButton = new Button("Reset");
+        Button pauseButton = new Button("Pause");
+        Button resumeButton = new Button("Resume");
+        Button drainButton = new Button("Drain");
 
         //Vendor Count Input Fields
         Label vendorCountLabel = new Label("Vendor Count (1-5):");
@@ -114,6 +132,14 @@ public class JavaFxInterface extends Application {
         logsTable.setPrefWidth(800);
         logsTable.setPlaceholder(new Label("No logs available"));
 
+        // History search for disputed purchases
+        TextField historySearchField = new TextField();
+        historySearchField.setPromptText("Ticket number or agent name (e.g. Customer 1)");
+        Button historySearchButton = new Button("Search History");
+        ListView<String> historyResults = new ListView<>();
+        historyResults.setPrefHeight(150);
+        historyResults.setPlaceholder(new Label("No history results"));
+
         //System Status Label
         Label systemStatusLabel = new Label("System Not Running");
 
@@ -135,7 +161,9 @@ public class JavaFxInterface extends Application {
                         customerRetrievalRate > 0 && customerRetrievalRate <= 5 && maxCapacity > 0 && maxCapacity <= 200) {
 
                     ticketPool = new TicketPool(totalTickets, maxCapacity);
-                    ticketPool.setTableLogger(tableLogger);
+                    ticketPool.setPoolListener(tableLogger);
+                    // Room for every event of every ticket, sized from the capacity so each Submit stays small
+                    ticketPool.setEventHistory(new EventHistory(maxCapacity * HISTORY_EVENTS_PER_TICKET));
 
                     statusLabel.setText("Parameters successfully submitted!");
                     tableLogger.logMessage("Parameters successfully submitted!");
@@ -218,17 +246,20 @@ public class JavaFxInterface extends Application {
                     customerCount = Integer.parseInt(customerCountField.getText());
 
                     if (vendorCount > 0 && vendorCount <= 5 && customerCount > 0 && customerCount <= 5 && parametersConfigured) {
-                        for (int i = 0; i < vendorCount; i++) {
-                            Thread vendorThread = new Thread(new Vendor(ticketPool, ticketReleaseRate), "Vendor " + (i + 1));
-                            threads.add(vendorThread);
-                            vendorThread.start();
+                        if (pricingEngine != null) {
+                            pricingEngine.stop();
                         }
-
-                        for (int i = 0; i < customerCount; i++) {
-                            Thread customerThread = new Thread(new Customer(ticketPool, customerRetrievalRate), "Customer " + (i + 1));
-                            threads.add(customerThread);
-                            customerThread.start();
+                        pricingEngine = new PricingEngine(TicketingSystem.BASE_TICKET_PRICE, customerCount * customerRetrievalRate);
+                        ticketPool.setPricingEngine(pricingEngine);
+                        pricingEngine.start();
+
+                        stopController();
+                        controller = new LifecycleController(ticketPool);
+                        if (ReleaseRateController.isAdaptiveReleaseRequested()) {
+                            controller.enableAdaptiveRelease(ReleaseRateController.DEFAULT_TARGET_OCCUPANCY,
+                                    ReleaseRateController.DEFAULT_TARGET_WAIT_MILLIS);
                         }
+                        controller.start(vendorCount, ticketReleaseRate, customerCount, customerRetrievalRate);
                         statusLabel.setText("Threads started successfully!");
                         //TicketingSystem.vendorThreads = true;
                         //TicketingSystem.customerThreads = true;
@@ -250,10 +281,11 @@ public class JavaFxInterface extends Application {
 
         //Thread Stop Button Action
         stopButton.setOnAction(e -> {
-            for (Thread thread : threads) {
-                thread.interrupt(); // Signal threads to stop
+            stopController();
+            if (pricingEngine != null) {
+                pricingEngine.stop();
+                tableLogger.logMessage("Final ticket price: " + String.format("%.2f", pricingEngine.getCurrentPrice()));
             }
-            threads.clear(); // Clearing the list
 
             statusLabel.setText("Threads stopped successfully!");
             systemStatusLabel.setText("System Stopped!");
@@ -262,7 +294,9 @@ public class JavaFxInterface extends Application {
 
         //Reset Button Action
         resetButton.setOnAction(e -> {
+            stopController();
             logsTable.getItems().clear();
+            historyResults.getItems().clear();
             totalTicketsField.setText("");
             ticketReleaseRateField.setText("");
             customerRetrievalRateField.setText("");
@@ -271,22 +305,69 @@ public class JavaFxInterface extends Application {
             customerCountField.setText("");
             TicketingSystem.customerThreads = false;
             TicketingSystem.vendorThreads = false;
-            for (Thread thread : threads) {
-                thread.interrupt(); // Signal threads to stop
+            if (pricingEngine != null) {
+                pricingEngine.stop();
+                pricingEngine = null;
             }
-            threads.clear(); // Clearing the list
-            //ticketPool = new TicketPool(totalTickets, maxCapacity); // Reinitialize
+            // Discard the old pool so nothing can keep using it after a reset
+            ticketPool = null;
+            parametersConfigured = false;
             systemStatusLabel.setText("System Terminated!");
         });
 
+        //History Search Button Action
+        historySearchButton.setOnAction(e -> {
+            historyResults.getItems().clear();
+            if (ticketPool == null || ticketPool.getEventHistory() == null) {
+                historyResults.getItems().add("Submit Parameters First!");
+                return;
+            }
+            String query = historySearchField.getText().trim();
+            List<HistoryEvent> events;
+            try {
+                events = ticketPool.getEventHistory().findByTicket(Integer.parseInt(query));
+            } catch (NumberFormatException ex) {
+                events = ticketPool.getEventHistory().findByAgent(query, 500);
+            }
+            for (HistoryEvent event : events) {
+                historyResults.getItems().add(event.toString());
+            }
+            if (events.isEmpty()) {
+                historyResults.getItems().add("No events found for '" + query + "'");
+            }
+        });
+
+        //Pause Button Action
+        pauseButton.setOnAction(e -> {
+            if (controller != null && controller.getState() == LifecycleController.State.RUNNING) {
+                controller.pause();
+                systemStatusLabel.setText("System Paused!");
+            }
+        });
+
+        //Resume Button Action
+        resumeButton.setOnAction(e -> {
+            if (controller != null && controller.getState() == LifecycleController.State.PAUSED) {
+                controller.resume();
+                systemStatusLabel.setText("System Running! ");
+            }
+        });
+
+        //Drain Button Action
+        drainButton.setOnAction(e -> {
+            if (controller != null && controller.getState() != LifecycleController.State.STOPPED) {
+                ShutdownReport report = controller.drain(TicketingSystem.STOP_TIMEOUT_MILLIS);
+                tableLogger.logMessage("Drained: " + report);
+                controller = null;
+                systemStatusLabel.setText("System Stopped!");
+            }
+        });
+
         // Layout for Buttons
         HBox buttonsLayout = new HBox(10, saveConfigButton, loadConfigButton);
         buttonsLayout.setAlignment(Pos.CENTER);
 
-        HBox threadButtons = new HBox(10, startButton, stopButton, resetButton);
-        threadButtons.setAlignment(Pos.CENTER);
-
-        HBox functionButtons = new HBox(10,startButton, stopButton, resetButton);
+        HBox functionButtons = new HBox(10,startButton, pauseButton, resumeButton, drainButton, stopButton, resetButton);
         functionButtons.setSpacing(20);
         functionButtons.setPadding(new Insets(10));
         functionButtons.setAlignment(Pos.CENTER);
@@ -307,7 +388,9 @@ public class JavaFxInterface extends Application {
         parameterFieldsLayout.setMinWidth(300);
 
         // Create VBox for the ListView (right side)
-        VBox logsLayout = new VBox(10, new Label("Logs:"), logsTable);
+        HBox historySearchLayout = new HBox(10, historySearchField, historySearchButton);
+        VBox logsLayout = new VBox(10, new Label("Logs:"), logsTable,
+                new Label("Event History:"), historySearchLayout, historyResults);
         logsLayout.setAlignment(Pos.CENTER_LEFT);
         logsLayout.setMaxWidth(700);
 
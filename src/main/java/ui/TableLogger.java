@@ -0,0 +1,80 @@
+package ui;
+
+import core.PoolListener;
+import javafx.application.Platform;
+import javafx.scene.control.ListView;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A logger class that handles logging messages with timestamps to a ListView.
+ * This class is used for displaying logs in Listview on JavaFX application.
+ * It also acts as the ticket pool's {@link PoolListener}, so the core engine never depends on JavaFX.
+ */
+public class TableLogger implements PoolListener {
+    private final ListView<String> logsList;
+    private  DateTimeFormatter dateTime = DateTimeFormatter.ofPattern("yyyy-MM-dd HH: mm: ss");
+
+    /**
+     * Constructs a TableLogger with a specified ListView for displaying logs.
+     *
+     * @param logsList The ListView component where the logs will be displayed.
+     */
+    public TableLogger(ListView<String> logsList) {
+        this.logsList = logsList;
+    }
+
+    /**
+     * Logs a message with a specified log level and adds it to the ListView with a timestamp.
+     * This method is thread-safe and runs on the JavaFX Application thread.
+     *
+     * @param message The log message to be displayed.
+     */
+    public void logMessage(String message) {
+
+        String timestamp = LocalDateTime.now().format(dateTime);
+        String formattedLog = String.format("[%s] INFO: %s", timestamp, message);
+
+        Platform.runLater(() -> {
+            logsList.getItems().add(formattedLog);
+            // Automatically scroll to the bottom
+            logsList.scrollTo(logsList.getItems().size() - 1);
+        });
+    }
+
+    /**
+     * Logs tickets added to the pool by a vendor.
+     *
+     * @param agentName     the name of the vendor thread
+     * @param ticketsAdded  the number of tickets added
+     * @param ticketsInPool the number of tickets in the pool afterwards
+     */
+    @Override
+    public void ticketsAdded(String agentName, int ticketsAdded, int ticketsInPool) {
+        logMessage(agentName + " added " + ticketsAdded + " tickets. Total tickets in pool: " + ticketsInPool);
+    }
+
+    /**
+     * Logs tickets bought from the pool by a customer.
+     *
+     * @param agentName        the name of the customer thread
+     * @param ticketsBought    the number of tickets bought
+     * @param ticketsInPool    the number of tickets remaining in the pool
+     * @param totalTicketsSold the total number of tickets sold so far
+     */
+    @Override
+    public void ticketsSold(String agentName, int ticketsBought, int ticketsInPool, int totalTicketsSold) {
+        logMessage(agentName + " bought " + ticketsBought + " tickets. Tickets remaining in pool: " + ticketsInPool +
+                ". Total Tickets Sold: " + totalTicketsSold);
+    }
+
+    /**
+     * Logs a pool status message.
+     *
+     * @param message the status message
+     */
+    @Override
+    public void message(String message) {
+        logMessage(message);
+    }
+}
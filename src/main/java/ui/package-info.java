@@ -5,6 +5,7 @@
  * <p>Classes in this package:
  * <ul>
  *   <li>{@link ui.JavaFxInterface} - The main graphical user interface class that allows the user to input parameters, start/stop threads, and display logs. It integrates with core classes such as `TicketPool`, `Vendor`, and `Customer` for ticketing operations.</li>
+ *   <li>{@link ui.TableLogger} - Displays timestamped log messages in the JavaFX ListView. It implements {@link core.PoolListener} so the ticket pool can report activity without depending on JavaFX.</li>
  * </ul>
  *
  * @author Raveen Gamachchige
@@ -0,0 +1,90 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+import store.TicketRecordStore;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link TicketPool}.
+ */
+public class TicketPoolTest {
+
+    /**
+     * A record store smaller than the pool's capacity is refused before any ticket is issued into it.
+     */
+    @Test
+    public void setRecordStoreRejectsUndersizedStore() {
+        TicketPool pool = new TicketPool(5, 100);
+        TicketRecordStore store = new TicketRecordStore(50);
+
+        assertThrows(IllegalArgumentException.class, () -> pool.setRecordStore(store));
+        assertEquals(TicketRecordStore.STATUS_NONE, store.getStatus(1));
+    }
+
+    /**
+     * A record store exactly as large as the pool's capacity is accepted and the pool's tickets are issued into it.
+     */
+    @Test
+    public void setRecordStoreAcceptsStoreOfMaxCapacity() {
+        TicketPool pool = new TicketPool(5, 100);
+        TicketRecordStore store = new TicketRecordStore(100);
+
+        pool.setRecordStore(store);
+        assertEquals(TicketRecordStore.STATUS_AVAILABLE, store.getStatus(1));
+    }
+
+    /**
+     * A ticket the record store refuses is voided, so a customer parked waiting for more tickets than are left
+     * returns once the vendors stop instead of waiting for a ticket that will never be sold.
+     */
+    @Test
+    public void refusedTicketDoesNotStrandWaitingCustomer() throws Exception {
+        TicketPool pool = new TicketPool(3, 3);
+        TicketRecordStore store = new TicketRecordStore(3);
+        pool.setRecordStore(store);
+        store.sell(2, 99, 0); // Sold outside the pool, so the pool's sale of ticket 2 is refused
+
+        AtomicReference<int[]> parkedResult = new AtomicReference<>();
+        Thread parked = new Thread(() -> {
+            try {
+                parkedResult.set(pool.removeTickets(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Parked Customer");
+        try {
+            parked.start();
+            awaitWaiting(parked);
+
+            assertArrayEquals(new int[]{1, 3}, pool.tryRemoveTickets(3));
+            assertEquals(1, pool.getTicketsVoided());
+            pool.addTickets(1); // Capacity reached, so the vendors stop and wake the parked customer
+
+            parked.join(5000);
+            assertFalse(parked.isAlive(), "Customer still waiting after the pool sold out");
+            assertArrayEquals(new int[0], parkedResult.get());
+        } finally {
+            parked.interrupt();
+            TicketingSystem.vendorThreads = false;
+            TicketingSystem.customerThreads = false;
+        }
+    }
+
+    /**
+     * Waits until a thread is blocked in Object.wait.
+     *
+     * @param thread the thread
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+    }
+}
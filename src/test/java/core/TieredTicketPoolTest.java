@@ -0,0 +1,55 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link TieredTicketPool}.
+ */
+public class TieredTicketPoolTest {
+
+    /**
+     * Each tier numbers its tickets within its own range, so no ticket number is sold by two tiers.
+     */
+    @Test
+    public void tiersIssueDisjointTicketNumbers() throws Exception {
+        TieredTicketPool event = new TieredTicketPool();
+        event.addTier("VIP", 10, 10, 1);
+        event.addTier("Balcony", 5, 20, 1);
+        event.addTier("General", 0, 30, 1);
+        event.getTier("Balcony").getTicketPool().addTickets(15);
+        event.getTier("General").getTicketPool().addTickets(30);
+
+        Set<Integer> seen = new HashSet<>();
+        for (TieredTicketPool.Tier tier : event.getTiers()) {
+            TicketPool pool = tier.getTicketPool();
+            int first = pool.getFirstTicketNumber();
+            for (int ticketNumber : pool.tryRemoveTickets(pool.getMaxTicketCapacity())) {
+                assertTrue(ticketNumber >= first && ticketNumber < first + pool.getMaxTicketCapacity(),
+                        tier.getName() + " sold ticket " + ticketNumber + " outside its range");
+                assertTrue(seen.add(ticketNumber), "Ticket " + ticketNumber + " sold by two tiers");
+            }
+        }
+        assertEquals(60, seen.size());
+        assertEquals(11, event.getTier("Balcony").getTicketPool().getFirstTicketNumber());
+        assertEquals(31, event.getTier("General").getTicketPool().getFirstTicketNumber());
+    }
+
+    /**
+     * A tier's capacity cannot be raised, since that would run into the next tier's numbers.
+     */
+    @Test
+    public void tierCapacityCannotBeRaised() {
+        TieredTicketPool event = new TieredTicketPool();
+        event.addTier("VIP", 0, 10, 1);
+        event.addTier("General", 0, 10, 1);
+
+        assertThrows(IllegalStateException.class, () -> event.getTier("VIP").getTicketPool().raiseMaxTicketCapacity(20));
+    }
+}
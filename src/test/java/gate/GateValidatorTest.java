@@ -0,0 +1,65 @@
+package gate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link GateValidator}.
+ */
+public class GateValidatorTest {
+
+    /**
+     * Several gates scanning the same block of tickets at once admit every sold ticket exactly once.
+     * The block stays below 4096 tickets, so every scan goes through the same array container.
+     */
+    @Test
+    public void gatesScanningOneBlockAdmitEachTicketOnce() throws Exception {
+        int ticketCount = 4000;
+        int gateCount = 8;
+        GateValidator validator = new GateValidator();
+        for (int ticketNumber = 1; ticketNumber <= ticketCount; ticketNumber++) {
+            validator.markSold(ticketNumber);
+        }
+
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> gates = new ArrayList<>();
+        for (int gate = 0; gate < gateCount; gate++) {
+            List<Integer> queue = new ArrayList<>();
+            for (int ticketNumber = 1; ticketNumber <= ticketCount; ticketNumber++) {
+                queue.add(ticketNumber);
+            }
+            Collections.shuffle(queue);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int ticketNumber : queue) {
+                    if (validator.validate(ticketNumber) == GateValidator.Result.ADMITTED) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            }, "Gate " + (gate + 1));
+            gates.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread gate : gates) {
+            gate.join();
+        }
+
+        assertEquals(ticketCount, admitted.get());
+        assertEquals(ticketCount, validator.getAdmittedCount());
+        assertEquals((long) ticketCount * (gateCount - 1), validator.getDuplicateCount());
+        assertEquals(ticketCount, validator.getScannedCount());
+    }
+}
@@ -0,0 +1,77 @@
+package gate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link TicketBitmap}.
+ */
+public class TicketBitmapTest {
+
+    /**
+     * Threads adding and removing in one block while it grows past the array limit and becomes a bitmap
+     * lose no update and count every ticket once.
+     */
+    @Test
+    public void concurrentUpdatesSurviveConversionToBitmap() throws Exception {
+        TicketBitmap bitmap = new TicketBitmap();
+        int threadCount = 4;
+        int perThread = 3000;
+        AtomicInteger added = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int first = t * perThread;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // Interleave with the other threads and add every ticket twice, only the first add counts
+                    int ticketNumber = first + i;
+                    if (bitmap.add(ticketNumber)) {
+                        added.incrementAndGet();
+                    }
+                    bitmap.add(ticketNumber);
+                    if (i % 3 == 0) {
+                        bitmap.remove(ticketNumber);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * perThread, added.get());
+        int expected = 0;
+        for (int ticketNumber = 0; ticketNumber < threadCount * perThread; ticketNumber++) {
+            boolean removed = (ticketNumber % perThread) % 3 == 0;
+            assertEquals(!removed, bitmap.contains(ticketNumber), "Ticket " + ticketNumber);
+            expected += removed ? 0 : 1;
+        }
+        assertEquals(expected, bitmap.size());
+        AtomicInteger visited = new AtomicInteger();
+        bitmap.forEach(ticketNumber -> visited.incrementAndGet());
+        assertEquals(expected, visited.get());
+    }
+
+    /**
+     * Removing every ticket of an array container leaves it empty and ready to take tickets again.
+     */
+    @Test
+    public void arrayContainerEmptiesAndRefills() {
+        TicketBitmap bitmap = new TicketBitmap();
+        assertTrue(bitmap.add(70000));
+        assertTrue(bitmap.remove(70000));
+        assertFalse(bitmap.contains(70000));
+        assertFalse(bitmap.remove(70000));
+        assertTrue(bitmap.add(70001));
+        assertEquals(1, bitmap.size());
+    }
+}